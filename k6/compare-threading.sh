@@ -0,0 +1,67 @@
+#!/bin/bash
+
+# Compare throughput/latency of platform threads vs virtual threads
+# Usage: ./k6/compare-threading.sh [k6 script, default spike-test.js]
+#
+# Starts the packaged application once per mode (spring.threads.virtual.enabled=false/true),
+# runs the same k6 script against each and prints the key numbers side by side.
+# Requires the docker stack (Kafka + PostgreSQL) and a built jar (mvn -DskipTests package).
+
+set -e
+
+SCRIPT="${1:-spike-test.js}"
+RESULTS_DIR="k6/results"
+JAR=$(ls target/thomas-cup-kafka-*.jar 2>/dev/null | head -1)
+
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+RED='\033[0;31m'
+NC='\033[0m'
+
+if [ -z "$JAR" ]; then
+    echo -e "${RED}✗ No jar in target/. Build it first: mvn -DskipTests package${NC}"
+    exit 1
+fi
+mkdir -p "$RESULTS_DIR"
+
+wait_for_app() {
+    for _ in $(seq 1 60); do
+        if curl -s http://localhost:8080/actuator/health > /dev/null; then
+            return 0
+        fi
+        sleep 2
+    done
+    echo -e "${RED}✗ Application did not start${NC}"
+    return 1
+}
+
+run_mode() {
+    local mode=$1
+    local virtual=$2
+    echo -e "${GREEN}🚀 Running ${SCRIPT} with ${mode} threads${NC}"
+    java -jar "$JAR" --spring.threads.virtual.enabled="$virtual" > "$RESULTS_DIR/app-$mode.log" 2>&1 &
+    local pid=$!
+    trap "kill $pid 2>/dev/null" EXIT
+    wait_for_app
+    docker compose --profile performance run --rm k6 run \
+        --summary-trend-stats="med,p(95),p(99)" \
+        --summary-export="/scripts/results/$mode.json" "/scripts/$SCRIPT" || true
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    trap - EXIT
+}
+
+run_mode platform false
+run_mode virtual true
+
+echo -e "${YELLOW}Results (${SCRIPT})${NC}"
+printf "%-10s %12s %10s %10s %10s %8s\n" "mode" "req/s" "p50 ms" "p95 ms" "p99 ms" "failed"
+for mode in platform virtual; do
+    jq -r --arg mode "$mode" '[$mode,
+        (.metrics.http_reqs.rate | floor),
+        (.metrics.http_req_duration.med * 10 | round / 10),
+        (.metrics.http_req_duration["p(95)"] * 10 | round / 10),
+        (.metrics.http_req_duration["p(99)"] * 10 | round / 10),
+        (.metrics.http_req_failed.value)] | @tsv' "$RESULTS_DIR/$mode.json" |
+        awk -F'\t' '{ printf "%-10s %12s %10s %10s %10s %8s\n", $1, $2, $3, $4, $5, $6 }'
+done
@@ -37,6 +37,25 @@ docker exec kafka1 kafka-topics --create \
   --config cleanup.policy=delete \
   --config retention.ms=604800000
 
+# Kafka Streams match aggregates (one latest value per match id)
+docker exec kafka1 kafka-topics --create \
+  --bootstrap-server kafka1:29092,kafka2:29093,kafka3:29094 \
+  --topic match-aggregates \
+  --partitions 3 \
+  --replication-factor 3 \
+  --config min.insync.replicas=2 \
+  --config cleanup.policy=compact
+
+# Tracking events shared by all EventController replicas (keyed by trackingId)
+docker exec kafka1 kafka-topics --create \
+  --bootstrap-server kafka1:29092,kafka2:29093,kafka3:29094 \
+  --topic tracking-events \
+  --partitions 6 \
+  --replication-factor 3 \
+  --config min.insync.replicas=2 \
+  --config cleanup.policy=delete \
+  --config retention.ms=86400000
+
 echo "Topics created successfully with replication factor 3!"
 
 # List topics to verify
@@ -0,0 +1,65 @@
+package com.thomascup.mapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thomascup.model.TrackingEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binding cost of {@code /events/flexible}: the Map path (parse to a Map, then bind) against
+ * reading the record straight from the token stream.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FlexibleJsonMapperBenchmark {
+    private static final String EVENT_JSON = """
+            {"trackingId": " PN123456789 ", "status": "ARRIVED_AT_SORTING_FACILITY",
+             "timestamp": "2025-01-05T12:30:00Z", "extraField": "ignored"}
+            """;
+
+    private final FlexibleJsonMapper mapper = new FlexibleJsonMapper();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] body;
+    private Map<String, Object> parsed;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws IOException {
+        body = EVENT_JSON.getBytes(StandardCharsets.UTF_8);
+        parsed = objectMapper.readValue(body, Map.class);
+    }
+
+    @Benchmark
+    public TrackingEvent mapToRecord() {
+        return mapper.mapToRecord(parsed, TrackingEvent.class);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public TrackingEvent parseToMapThenBind() throws IOException {
+        return mapper.mapToRecord(objectMapper.readValue(body, Map.class), TrackingEvent.class);
+    }
+
+    @Benchmark
+    public TrackingEvent readRecord() throws IOException {
+        return mapper.readRecord(new ByteArrayInputStream(body), TrackingEvent.class);
+    }
+}
@@ -0,0 +1,64 @@
+package com.thomascup.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Score validation in the {@link MatchScores} and {@link MatchResult} constructors and setters,
+ * for valid scores and for the rejected path (exception construction dominates there).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScoreValidationBenchmark {
+    private static final LocalDateTime MATCH_TIME = LocalDateTime.of(2025, 6, 7, 10, 0);
+
+    private int score;
+
+    @Benchmark
+    public MatchScores matchScoresValid() {
+        int s = nextScore();
+        return new MatchScores(1 + s % 3, s % 15, (s + 3) % 15, null);
+    }
+
+    @Benchmark
+    public MatchResult matchResultValid() {
+        int s = nextScore();
+        return new MatchResult("match-1", "TeamA", "TeamB", s % 15, (s + 3) % 15, null, MATCH_TIME, 1 + s % 3);
+    }
+
+    @Benchmark
+    public void matchScoresDeuceSetters(Blackhole blackhole) {
+        MatchScores scores = new MatchScores(1, 20, 20, null);
+        scores.setTeamAScore(21 + nextScore() % 9);
+        scores.setTeamBScore(scores.getTeamAScore() - 1);
+        blackhole.consume(scores);
+    }
+
+    @Benchmark
+    public void matchScoresRejected(Blackhole blackhole) {
+        try {
+            blackhole.consume(new MatchScores(3, 16, nextScore() % 10, null));
+        } catch (IllegalArgumentException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    private int nextScore() {
+        return score = (score + 1) & 0xFFFF;
+    }
+}
@@ -0,0 +1,137 @@
+package com.thomascup.repository;
+
+import com.thomascup.model.TrackingEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Durable {@link EventRepository#saveEvent} through the event log from 8 threads (each save
+ * waits for the group fsync), and recovery time of a log of {@code events} records, replayed
+ * from the segments only or from a snapshot.
+ */
+@Fork(1)
+public class EventLogBenchmark {
+    private static final Instant START = Instant.parse("2025-01-05T12:00:00Z");
+    private static final int SEGMENT_SIZE = 64 << 20;
+
+    @State(Scope.Benchmark)
+    public static class Appending {
+        Path directory;
+        EventRepository repository;
+
+        @Setup(Level.Iteration)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("event-log-benchmark");
+            repository = open(directory, true);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() throws IOException {
+            repository.close();
+            delete(directory);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Writer {
+        long sequence;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Recovering {
+        @Param({"1000000"})
+        public int events;
+
+        @Param({"false", "true"})
+        public boolean snapshot;
+
+        Path directory;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("event-log-benchmark");
+            EventRepository repository = open(directory, false);
+            for (int i = 0; i < events; i++) {
+                repository.saveEvent(new TrackingEvent("PN" + (i % 100_000), "STATUS_" + i, START.plusMillis(i)));
+            }
+            repository.close();
+            if (snapshot) {
+                EventLog log = new EventLog(directory, SEGMENT_SIZE, Duration.ofMillis(2), Long.MAX_VALUE);
+                Map<String, List<TrackingEvent>> byId = new LinkedHashMap<>();
+                log.recover(event -> byId.computeIfAbsent(event.trackingId(), id -> new ArrayList<>()).add(event));
+                EventLog.Snapshot state = new EventLog.Snapshot(log.position(), List.copyOf(byId.values()));
+                log.close();
+                new EventLog(directory, SEGMENT_SIZE, Duration.ofMillis(2), Long.MAX_VALUE).writeSnapshot(state);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            delete(directory);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Threads(8)
+    public TrackingEvent durableSave(Appending state, Writer writer) {
+        long n = writer.sequence++;
+        return state.repository.saveEvent(new TrackingEvent("PN" + (n % 100_000), "STATUS_" + n, START.plusMillis(n)));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 5)
+    public long recover(Recovering state) {
+        long[] count = new long[1];
+        EventLog log = new EventLog(state.directory, SEGMENT_SIZE, Duration.ofMillis(2), Long.MAX_VALUE);
+        log.recover(event -> count[0]++);
+        log.close();
+        return count[0];
+    }
+
+    private static EventRepository open(Path directory, boolean syncWrites) {
+        EventLog log = new EventLog(directory, SEGMENT_SIZE, Duration.ofMillis(2), Long.MAX_VALUE);
+        EventRepository repository = new EventRepository(1000, Duration.ofHours(24), System::nanoTime, log, syncWrites);
+        repository.recover();
+        return repository;
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+}
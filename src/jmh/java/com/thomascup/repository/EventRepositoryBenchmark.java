@@ -0,0 +1,65 @@
+package com.thomascup.repository;
+
+import com.thomascup.model.TrackingEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EventRepository#saveEvent} from 8 threads. {@code trackingIds} controls contention:
+ * 1 puts every writer on the same map bin, larger values spread them out. A fixed pool of
+ * statuses per trackingId keeps a share of duplicates, as retried POSTs produce in practice.
+ * The durable log has its own benchmark ({@link EventLogBenchmark}).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class EventRepositoryBenchmark {
+    private static final Instant START = Instant.parse("2025-01-05T12:00:00Z");
+    private static final int STATUSES = 512;
+
+    @Param({"1", "64", "100000"})
+    public int trackingIds;
+
+    private EventRepository repository;
+    private String[] ids;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        repository = new EventRepository(1000, Duration.ofHours(24));
+        ids = new String[trackingIds];
+        for (int i = 0; i < trackingIds; i++) {
+            ids[i] = "PN" + i;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Writer {
+        long sequence;
+    }
+
+    @Benchmark
+    public TrackingEvent saveEvent(Writer writer) {
+        long n = writer.sequence++;
+        int status = (int) (n % STATUSES);
+        return repository.saveEvent(new TrackingEvent(ids[(int) (n % ids.length)], "STATUS_" + status, START.plusSeconds(status)));
+    }
+}
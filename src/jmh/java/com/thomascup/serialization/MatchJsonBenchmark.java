@@ -0,0 +1,91 @@
+package com.thomascup.serialization;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.thomascup.mapper.KafkaValueDecoder;
+import com.thomascup.model.MatchHead;
+import com.thomascup.model.MatchResult;
+import com.thomascup.model.MatchScores;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wire formats of the match topics: MatchResult JSON as the Kafka serializer writes it and as
+ * the listeners decode it, and MatchHead as JSON or Avro. MatchHead has no JSON creator, so it
+ * is only decoded from Avro, as the consumers do.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MatchJsonBenchmark {
+    private static final String TOPIC = "thomas-cup-matches";
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final KafkaValueDecoder decoder = new KafkaValueDecoder(objectMapper, MatchResult.class);
+    private final JsonSerializer<Object> jsonSerializer = new JsonSerializer<>(objectMapper);
+    private final AvroSchemaRegistry registry = new AvroSchemaRegistry();
+    private final MatchHeadAvroSerializer avroSerializer = new MatchHeadAvroSerializer(registry);
+    private final MatchHeadAvroDeserializer avroDeserializer = new MatchHeadAvroDeserializer(registry);
+
+    private MatchResult result;
+    private MatchHead head;
+    private byte[] resultJson;
+    private byte[] headAvro;
+    private RecordHeaders avroHeaders;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        LocalDateTime time = LocalDateTime.of(2025, 6, 7, 10, 0, 5);
+        result = new MatchResult("match-1", "Indonesia", "Denmark", 21, 19, "Indonesia", time, 1);
+        head = new MatchHead("match-1", "Indonesia", "Denmark", time, List.of(
+                new MatchScores(1, 21, 19, "Indonesia"),
+                new MatchScores(2, 18, 21, "Denmark"),
+                new MatchScores(3, 9, 7, null)));
+        resultJson = objectMapper.writeValueAsBytes(result);
+        avroHeaders = new RecordHeaders();
+        headAvro = avroSerializer.serialize(TOPIC, avroHeaders, head);
+    }
+
+    @Benchmark
+    public byte[] matchResultToJson() {
+        return jsonSerializer.serialize(TOPIC, result);
+    }
+
+    @Benchmark
+    public MatchResult matchResultFromJson() {
+        return decoder.decode(resultJson, MatchResult.class);
+    }
+
+    @Benchmark
+    public byte[] matchHeadToJson() {
+        return jsonSerializer.serialize(TOPIC, head);
+    }
+
+    @Benchmark
+    public byte[] matchHeadToAvro() {
+        return avroSerializer.serialize(TOPIC, new RecordHeaders(), head);
+    }
+
+    @Benchmark
+    public MatchHead matchHeadFromAvro() {
+        return avroDeserializer.deserialize(TOPIC, avroHeaders, headAvro);
+    }
+}
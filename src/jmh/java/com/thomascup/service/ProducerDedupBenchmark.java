@@ -0,0 +1,100 @@
+package com.thomascup.service;
+
+import com.thomascup.model.MatchHead;
+import com.thomascup.model.MatchResult;
+import com.thomascup.model.MatchScores;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dedup decision of both producers with Kafka stubbed out. Each match cycles through
+ * {@code updatesPerMatch} states, so after the first round every offer is a repeat that the
+ * idempotency stores must recognise.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProducerDedupBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 6, 7, 10, 0);
+
+    @Param({"1000", "40000"})
+    public int matches;
+
+    @Param({"8"})
+    public int updatesPerMatch;
+
+    private final MatchHeadProducer matchHeadProducer = new MatchHeadProducer();
+    @SuppressWarnings("deprecation")
+    private final MatchResultProducer matchResultProducer = new MatchResultProducer();
+    private MatchHead[] heads;
+    private MatchResult[] results;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        ReflectionTestUtils.setField(matchHeadProducer, "kafkaTemplate", new DiscardingKafkaTemplate<MatchHead>());
+        ReflectionTestUtils.setField(matchResultProducer, "kafkaTemplate", new DiscardingKafkaTemplate<MatchResult>());
+        heads = new MatchHead[matches * updatesPerMatch];
+        results = new MatchResult[matches * updatesPerMatch];
+        for (int m = 0; m < matches; m++) {
+            for (int u = 0; u < updatesPerMatch; u++) {
+                int i = m * updatesPerMatch + u;
+                heads[i] = new MatchHead("match-" + m, "TeamA", "TeamB", START.plusMinutes(u),
+                        List.of(new MatchScores(1, u, u + 1, null)));
+                results[i] = new MatchResult("match-" + m, "TeamA", "TeamB", u, u + 1, null, START.plusMinutes(u), 1);
+            }
+        }
+    }
+
+    @Benchmark
+    public void matchHeadProducer() {
+        matchHeadProducer.sendMatchHead(heads[nextIndex()]);
+    }
+
+    @Benchmark
+    public CompletableFuture<SendResult<String, MatchResult>> matchResultProducer() {
+        return matchResultProducer.sendMatchResult(results[nextIndex()]);
+    }
+
+    private int nextIndex() {
+        int i = next;
+        next = i + 1 == heads.length ? 0 : i + 1;
+        return i;
+    }
+
+    private static final class DiscardingKafkaTemplate<V> extends KafkaTemplate<String, V> {
+        private static final CompletableFuture<?> SENT = CompletableFuture.completedFuture(null);
+
+        DiscardingKafkaTemplate() {
+            super(new DefaultKafkaProducerFactory<>(Map.of()));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public CompletableFuture<SendResult<String, V>> send(String topic, String key, V data) {
+            return (CompletableFuture<SendResult<String, V>>) SENT;
+        }
+    }
+}
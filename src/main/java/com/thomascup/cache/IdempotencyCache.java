@@ -0,0 +1,233 @@
+package com.thomascup.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded last-seen cache for producer-side deduplication.
+ * <p>
+ * Keys are spread over lock-striped segments, each an access-ordered {@link LinkedHashMap}
+ * holding at most {@code maxEntries / segments} entries, so concurrent request threads only
+ * contend when they hit the same segment. Entries are evicted when a segment is full (least
+ * recently used first) or when they have not been touched for their time-to-live; callers can
+ * give finished matches a shorter TTL than live ones. Entries with the same TTL expire in the
+ * order they were last touched, so each segment links them into one queue per TTL and purging
+ * only looks at the queue heads, however the TTLs interleave in LRU order.
+ */
+public class IdempotencyCache<K, V> {
+    private static final int SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;
+    private final long defaultTtlNanos;
+    private final LongSupplier nanoClock;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public IdempotencyCache(int maxEntries, Duration idleTtl) {
+        this(maxEntries, idleTtl, System::nanoTime);
+    }
+
+    @SuppressWarnings("unchecked")
+    IdempotencyCache(int maxEntries, Duration idleTtl, LongSupplier nanoClock) {
+        if (maxEntries < SEGMENTS) {
+            throw new IllegalArgumentException("maxEntries must be at least " + SEGMENTS);
+        }
+        this.defaultTtlNanos = idleTtl.toNanos();
+        this.nanoClock = nanoClock;
+        this.segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment<>(maxEntries / SEGMENTS, evictions);
+        }
+    }
+
+    public V get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        long now = nanoClock.getAsLong();
+        synchronized (segment) {
+            Entry<K, V> entry = segment.get(key);
+            if (entry != null && entry.expiresAt - now <= 0) {
+                segment.evict(key);
+                evictions.increment();
+                entry = null;
+            }
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            segment.touch(entry, now);
+            hits.increment();
+            return entry.value;
+        }
+    }
+
+    public void put(K key, V value) {
+        put(key, value, defaultTtlNanos);
+    }
+
+    public void put(K key, V value, Duration ttl) {
+        put(key, value, ttl.toNanos());
+    }
+
+    private void put(K key, V value, long ttlNanos) {
+        Segment<K, V> segment = segmentFor(key);
+        long now = nanoClock.getAsLong();
+        synchronized (segment) {
+            segment.purgeExpired(now);
+            segment.add(new Entry<>(key, value, ttlNanos, now + ttlNanos));
+        }
+    }
+
+    public void invalidate(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.evict(key);
+        }
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public void bindTo(MeterRegistry registry, String cacheName) {
+        FunctionCounter.builder("thomascup.dedup.cache.hits", hits, LongAdder::sum)
+                .tag("cache", cacheName).register(registry);
+        FunctionCounter.builder("thomascup.dedup.cache.misses", misses, LongAdder::sum)
+                .tag("cache", cacheName).register(registry);
+        FunctionCounter.builder("thomascup.dedup.cache.evictions", evictions, LongAdder::sum)
+                .tag("cache", cacheName).register(registry);
+        Gauge.builder("thomascup.dedup.cache.size", this, IdempotencyCache::size)
+                .tag("cache", cacheName).register(registry);
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int h = key.hashCode();
+        return segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private static final class Entry<K, V> {
+        final K key;
+        final V value;
+        final long ttlNanos;
+        long expiresAt;
+        // Neighbours in the expiry queue of this TTL
+        Entry<K, V> previous;
+        Entry<K, V> next;
+
+        Entry(K key, V value, long ttlNanos, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.ttlNanos = ttlNanos;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Entries sharing one TTL, least recently touched (and so first to expire) at the head.
+     */
+    private static final class ExpiryQueue<K, V> {
+        Entry<K, V> head;
+        Entry<K, V> tail;
+
+        void append(Entry<K, V> entry) {
+            entry.previous = tail;
+            entry.next = null;
+            if (tail != null) {
+                tail.next = entry;
+            } else {
+                head = entry;
+            }
+            tail = entry;
+        }
+
+        void unlink(Entry<K, V> entry) {
+            if (entry.previous != null) {
+                entry.previous.next = entry.next;
+            } else {
+                head = entry.next;
+            }
+            if (entry.next != null) {
+                entry.next.previous = entry.previous;
+            } else {
+                tail = entry.previous;
+            }
+            entry.previous = null;
+            entry.next = null;
+        }
+    }
+
+    private static final class Segment<K, V> extends LinkedHashMap<K, Entry<K, V>> {
+        private final int maxSize;
+        private final LongAdder evictions;
+        // One queue per distinct TTL; in practice the idle and the finished-match TTL
+        private final Map<Long, ExpiryQueue<K, V>> expiryQueues = new HashMap<>(4);
+
+        Segment(int maxSize, LongAdder evictions) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+            this.evictions = evictions;
+        }
+
+        void add(Entry<K, V> entry) {
+            Entry<K, V> replaced = put(entry.key, entry);
+            if (replaced != null) {
+                queue(replaced).unlink(replaced);
+            }
+            queue(entry).append(entry);
+        }
+
+        void touch(Entry<K, V> entry, long now) {
+            entry.expiresAt = now + entry.ttlNanos;
+            ExpiryQueue<K, V> queue = queue(entry);
+            queue.unlink(entry);
+            queue.append(entry);
+        }
+
+        void evict(K key) {
+            Entry<K, V> entry = remove(key);
+            if (entry != null) {
+                queue(entry).unlink(entry);
+            }
+        }
+
+        void purgeExpired(long now) {
+            // Only the head of each queue can be the next to expire, so puts stay cheap
+            for (ExpiryQueue<K, V> queue : expiryQueues.values()) {
+                while (queue.head != null && queue.head.expiresAt - now <= 0) {
+                    Entry<K, V> expired = queue.head;
+                    queue.unlink(expired);
+                    remove(expired.key);
+                    evictions.increment();
+                }
+            }
+        }
+
+        private ExpiryQueue<K, V> queue(Entry<K, V> entry) {
+            return expiryQueues.computeIfAbsent(entry.ttlNanos, ttl -> new ExpiryQueue<>());
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Entry<K, V>> eldest) {
+            if (size() > maxSize) {
+                queue(eldest.getValue()).unlink(eldest.getValue());
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.thomascup.cache;
+
+import com.thomascup.model.MatchScores;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Primitive last-seen state per match for producer-side deduplication.
+ * <p>
+ * Instead of retaining whole {@code MatchHead} objects, each match is reduced to four longs:
+ * a 64-bit hash of its id, the scores of all three games packed into one long (see
+ * {@link #pack(List)}), the match time in epoch millis and an expiry deadline. Entries live in
+ * lock-striped open-addressing tables (linear probing, backward-shift deletion), so steady-state
+ * lookups and updates allocate nothing. Capacity, idle TTL and the shorter TTL for decided
+ * matches bound memory the same way {@link IdempotencyCache} does: each segment also keeps a
+ * binary min-heap of expiry deadlines, so a full segment evicts the entry that expires first in
+ * O(log n) instead of scanning its table.
+ * <p>
+ * Two ids whose 64-bit hashes collide would share an entry; at tournament scale the probability
+ * is negligible and the only effect would be one extra or one suppressed duplicate send.
+ */
+public class ScoreStateTable {
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    private static final int SEGMENTS = 16;
+    private static final int GAME_BITS = 16;
+    private static final long PRESENT = 1L << 10;
+
+    private final Segment[] segments;
+    private final long idleTtlNanos;
+    private final long decidedTtlNanos;
+    private final LongSupplier nanoClock;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ScoreStateTable(int maxEntries, Duration idleTtl, Duration decidedTtl) {
+        this(maxEntries, idleTtl, decidedTtl, System::nanoTime);
+    }
+
+    ScoreStateTable(int maxEntries, Duration idleTtl, Duration decidedTtl, LongSupplier nanoClock) {
+        if (maxEntries < SEGMENTS) {
+            throw new IllegalArgumentException("maxEntries must be at least " + SEGMENTS);
+        }
+        this.idleTtlNanos = idleTtl.toNanos();
+        this.decidedTtlNanos = decidedTtl.toNanos();
+        this.nanoClock = nanoClock;
+        this.segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(maxEntries / SEGMENTS);
+        }
+    }
+
+    /**
+     * Records the state if it is new for this match, newer than the last one or has different
+     * scores, mirroring the comparison MatchHeadProducer used to do on full objects.
+     *
+     * @return true if the caller should send the update
+     */
+    public boolean offer(String matchId, long packedScores, long matchTimeMillis) {
+        long key = hash(matchId);
+        Segment segment = segments[(int) (key >>> 60) & (SEGMENTS - 1)];
+        long now = nanoClock.getAsLong();
+        long ttl = isDecided(packedScores) ? decidedTtlNanos : idleTtlNanos;
+        synchronized (segment) {
+            int slot = segment.find(key);
+            if (slot >= 0 && segment.expiresAt[slot] - now <= 0) {
+                segment.delete(slot);
+                evictions.increment();
+                slot = -1;
+            }
+            if (slot < 0) {
+                misses.increment();
+                segment.insert(key, packedScores, matchTimeMillis, now + ttl);
+                return true;
+            }
+            hits.increment();
+            long lastTime = segment.matchTimes[slot];
+            boolean changed = matchTimeMillis != NO_TIME && lastTime != NO_TIME
+                    && (matchTimeMillis > lastTime || packedScores != segment.scores[slot]);
+            if (changed) {
+                segment.scores[slot] = packedScores;
+                segment.matchTimes[slot] = matchTimeMillis;
+                segment.expiresAt[slot] = now + ttl;
+                segment.schedule(key, now + ttl);
+            }
+            return changed;
+        }
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    public void bindTo(MeterRegistry registry, String cacheName) {
+        FunctionCounter.builder("thomascup.dedup.cache.hits", hits, LongAdder::sum)
+                .tag("cache", cacheName).register(registry);
+        FunctionCounter.builder("thomascup.dedup.cache.misses", misses, LongAdder::sum)
+                .tag("cache", cacheName).register(registry);
+        FunctionCounter.builder("thomascup.dedup.cache.evictions", evictions, LongAdder::sum)
+                .tag("cache", cacheName).register(registry);
+        Gauge.builder("thomascup.dedup.cache.size", this, ScoreStateTable::size)
+                .tag("cache", cacheName).register(registry);
+    }
+
+    /**
+     * Packs up to three games into one long: 16 bits per game (game 1 lowest), each holding a
+     * presence bit, team A's score in bits 5-9 and team B's in bits 0-4. Scores never exceed 30,
+     * so 5 bits each suffice. Winners are not packed; they follow from the scores.
+     */
+    public static long pack(List<MatchScores> scores) {
+        long packed = 0;
+        if (scores != null) {
+            for (int i = 0; i < scores.size(); i++) {
+                MatchScores score = scores.get(i);
+                int shift = GAME_BITS * (score.getGameNumber() - 1);
+                long game = PRESENT | ((long) score.getTeamAScore() << 5) | score.getTeamBScore();
+                packed = (packed & ~(0xFFFFL << shift)) | (game << shift);
+            }
+        }
+        return packed;
+    }
+
+    public static long epochMillis(LocalDateTime matchDateTime) {
+        return matchDateTime != null ? matchDateTime.toInstant(ZoneOffset.UTC).toEpochMilli() : NO_TIME;
+    }
+
+    // Best of 3: the match is decided once one side has won two games
+    static boolean isDecided(long packedScores) {
+        int winsA = 0;
+        int winsB = 0;
+        for (int gameNumber = 1; gameNumber <= 3; gameNumber++) {
+            long game = packedScores >>> (GAME_BITS * (gameNumber - 1));
+            if ((game & PRESENT) == 0) {
+                continue;
+            }
+            int a = (int) (game >>> 5) & 0x1F;
+            int b = (int) game & 0x1F;
+            if (MatchScores.isGameOver(gameNumber, a, b)) {
+                if (a > b) winsA++; else winsB++;
+            }
+        }
+        return winsA >= 2 || winsB >= 2;
+    }
+
+    // FNV-1a over the UTF-16 chars with a final avalanche; 0 marks an empty slot
+    static long hash(String id) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            h ^= id.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h != 0 ? h : 1;
+    }
+
+    private final class Segment {
+        private final int maxSize;
+        private final int maxCapacity;
+        long[] keys;
+        long[] scores;
+        long[] matchTimes;
+        long[] expiresAt;
+        int size;
+        // Min-heap of (deadline, key), one pair per deadline ever set. A pair is stale once its key
+        // is gone or has a newer deadline; stale pairs are skipped at the top or dropped on rebuild.
+        long[] heapDeadlines = new long[16];
+        long[] heapKeys = new long[16];
+        int heapSize;
+
+        Segment(int maxSize) {
+            this.maxSize = maxSize;
+            this.maxCapacity = Integer.highestOneBit(Math.max(maxSize, 8) - 1) << 2; // load factor <= 0.5
+            allocate(16);
+        }
+
+        private void allocate(int capacity) {
+            keys = new long[capacity];
+            scores = new long[capacity];
+            matchTimes = new long[capacity];
+            expiresAt = new long[capacity];
+        }
+
+        private int home(long key) {
+            return (int) (key ^ (key >>> 32)) & (keys.length - 1);
+        }
+
+        int find(long key) {
+            int mask = keys.length - 1;
+            for (int i = home(key); keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        void insert(long key, long packedScores, long matchTime, long deadline) {
+            if (size >= maxSize) {
+                evictFirstExpiring();
+            } else if ((size + 1) * 2 > keys.length && keys.length < maxCapacity) {
+                resize(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int i = home(key);
+            while (keys[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            scores[i] = packedScores;
+            matchTimes[i] = matchTime;
+            expiresAt[i] = deadline;
+            size++;
+            schedule(key, deadline);
+        }
+
+        /**
+         * Evicts the entry with the earliest deadline: an expired one if there is any, otherwise
+         * the one closest to expiring.
+         */
+        private void evictFirstExpiring() {
+            while (heapSize > 0) {
+                long key = heapKeys[0];
+                long deadline = heapDeadlines[0];
+                removeHeapTop();
+                int slot = find(key);
+                if (slot >= 0 && expiresAt[slot] == deadline) {
+                    delete(slot);
+                    evictions.increment();
+                    return;
+                }
+            }
+        }
+
+        void schedule(long key, long deadline) {
+            if (heapSize == heapKeys.length) {
+                rebuildHeap();
+                if (heapSize * 2 > heapKeys.length) {
+                    heapKeys = Arrays.copyOf(heapKeys, heapKeys.length * 2);
+                    heapDeadlines = Arrays.copyOf(heapDeadlines, heapDeadlines.length * 2);
+                }
+            }
+            int i = heapSize++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heapDeadlines[parent] - deadline <= 0) {
+                    break;
+                }
+                heapKeys[i] = heapKeys[parent];
+                heapDeadlines[i] = heapDeadlines[parent];
+                i = parent;
+            }
+            heapKeys[i] = key;
+            heapDeadlines[i] = deadline;
+        }
+
+        private void removeHeapTop() {
+            heapSize--;
+            if (heapSize > 0) {
+                siftDown(0, heapKeys[heapSize], heapDeadlines[heapSize]);
+            }
+        }
+
+        private void siftDown(int i, long key, long deadline) {
+            int half = heapSize >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < heapSize && heapDeadlines[child + 1] - heapDeadlines[child] < 0) {
+                    child++;
+                }
+                if (deadline - heapDeadlines[child] <= 0) {
+                    break;
+                }
+                heapKeys[i] = heapKeys[child];
+                heapDeadlines[i] = heapDeadlines[child];
+                i = child;
+            }
+            heapKeys[i] = key;
+            heapDeadlines[i] = deadline;
+        }
+
+        // Replaces the heap with the current deadline of every entry, dropping the stale pairs
+        private void rebuildHeap() {
+            heapSize = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0) {
+                    heapKeys[heapSize] = keys[i];
+                    heapDeadlines[heapSize] = expiresAt[i];
+                    heapSize++;
+                }
+            }
+            for (int i = (heapSize >>> 1) - 1; i >= 0; i--) {
+                siftDown(i, heapKeys[i], heapDeadlines[i]);
+            }
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            long[] oldScores = scores;
+            long[] oldTimes = matchTimes;
+            long[] oldExpiry = expiresAt;
+            allocate(capacity);
+            int mask = capacity - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] != 0) {
+                    int i = home(oldKeys[j]);
+                    while (keys[i] != 0) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    scores[i] = oldScores[j];
+                    matchTimes[i] = oldTimes[j];
+                    expiresAt[i] = oldExpiry[j];
+                }
+            }
+        }
+
+        void delete(int slot) {
+            int mask = keys.length - 1;
+            int hole = slot;
+            for (int j = (hole + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+                int home = home(keys[j]);
+                // Entry j may fill the hole unless its home lies cyclically in (hole, j]
+                boolean reachable = hole <= j ? (hole < home && home <= j) : (hole < home || home <= j);
+                if (!reachable) {
+                    keys[hole] = keys[j];
+                    scores[hole] = scores[j];
+                    matchTimes[hole] = matchTimes[j];
+                    expiresAt[hole] = expiresAt[j];
+                    hole = j;
+                }
+            }
+            keys[hole] = 0;
+            size--;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.thomascup.config;
+
+import com.thomascup.service.MatchResultSql;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+@Configuration
+public class DatabaseConfig {
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseConfig.class);
+
+    @Bean
+    public MatchResultSql matchResultSql(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return MatchResultSql.forDatabase(product);
+        } catch (MetaDataAccessException e) {
+            // Database not reachable at startup: keep the production dialect
+            logger.warn("Could not detect the database product, using PostgreSQL statements: {}", e.getMessage());
+            return MatchResultSql.POSTGRESQL;
+        }
+    }
+}
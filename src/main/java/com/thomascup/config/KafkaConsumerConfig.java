@@ -1,27 +1,76 @@
 package com.thomascup.config;
 
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.thomascup.mapper.KafkaValueDecoder;
 import com.thomascup.model.MatchResult;
+import com.thomascup.model.TrackingEvent;
+import com.thomascup.serialization.AvroSchemaRegistry;
+import com.thomascup.serialization.FingerprintDispatchingDeserializer;
+import com.thomascup.serialization.MatchHeadAvroDeserializer;
+import com.thomascup.service.PipelineMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.DeserializationException;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
 
 @Configuration
 public class KafkaConsumerConfig {
+    private static final Logger logger = LoggerFactory.getLogger(KafkaConsumerConfig.class);
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Same switch Spring Boot uses for Tomcat and its own executors
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${thomascup.db-writer.coalesce.window-ms:0}")
+    private long coalesceWindowMs;
+
+    // "database": the DB writers keep their positions in kafka_consumer_offsets (DbOffsetStore)
+    @Value("${thomascup.db-writer.offsets.store:kafka}")
+    private String dbWriterOffsetStore;
+
+    @Autowired
+    private AvroSchemaRegistry avroSchemaRegistry;
+
     @Bean
-    public ConsumerFactory<String, MatchResult> matchResultConsumerFactory() {
+    public KafkaValueDecoder kafkaValueDecoder() {
+        // Shared by all listeners that receive loosely typed (String/byte[]) values
+        return new KafkaValueDecoder(JsonMapper.builder().findAndAddModules().build(), avroSchemaRegistry, MatchResult.class);
+    }
+
+    /**
+     * Values are a MatchResult (JSON) or, on topics listed in thomascup.kafka.avro-topics, an Avro
+     * MatchHead; the listeners turn both into per-game results with {@link KafkaValueDecoder}.
+     */
+    @Bean
+    public ConsumerFactory<String, Object> matchResultConsumerFactory() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, "db-writer-group");
@@ -40,13 +89,148 @@ public class KafkaConsumerConfig {
         props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, 1024); // Minimum bytes to fetch
         props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, 500); // Max wait for minimum bytes
         
-        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new ErrorHandlingDeserializer<>(new JsonDeserializer<>(MatchResult.class)));
+        FingerprintDispatchingDeserializer valueDeserializer = new FingerprintDispatchingDeserializer(
+                new MatchHeadAvroDeserializer(avroSchemaRegistry), new JsonDeserializer<>(MatchResult.class));
+        return instrumented(new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new ErrorHandlingDeserializer<>(valueDeserializer)));
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, MatchResult> matchResultKafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, MatchResult> factory = new ConcurrentKafkaListenerContainerFactory<>();
+    public ConcurrentKafkaListenerContainerFactory<String, Object> matchResultKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(matchResultConsumerFactory());
+        factory.setCommonErrorHandler(new DefaultErrorHandler(this::recoverDbWriterRecord, new FixedBackOff(0L, 9L))); // Spring's default retries
+        applyDbWriterOffsetStore(factory);
+        applyListenerTaskExecutor(factory, "db-writer-");
         return factory;
     }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> matchResultBatchKafkaListenerContainerFactory() {
+        return matchResultBatchFactory(0L);
+    }
+
+    /**
+     * Batch factory of the update-score writer only: pauses coalesce.window-ms between polls so
+     * more updates per game land in one poll. The other batch listeners keep polling immediately.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> updateScoreBatchKafkaListenerContainerFactory() {
+        return matchResultBatchFactory(coalesceWindowMs);
+    }
+
+    private ConcurrentKafkaListenerContainerFactory<String, Object> matchResultBatchFactory(long idleBetweenPolls) {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(matchResultConsumerFactory());
+        factory.setBatchListener(true); // Hand the whole poll (up to max.poll.records) to the listener
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH); // Commit only after the batch is written
+        factory.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(1000L, 2L))); // Retry a failed record twice, then skip it
+        factory.getContainerProperties().setIdleBetweenPolls(idleBetweenPolls);
+        applyDbWriterOffsetStore(factory);
+        applyListenerTaskExecutor(factory, "db-writer-batch-");
+        return factory;
+    }
+
+    /**
+     * Raw-bytes batch consumer for the in-memory scoreboard: values are decoded by the listener so
+     * one undecodable record is skipped instead of failing the poll, and nothing is committed
+     * because each instance re-reads the topics from the beginning.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> scoreboardKafkaListenerContainerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 2000); // Larger polls while rebuilding
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(instrumented(new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new ByteArrayDeserializer())));
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL); // Never acknowledged: no commits
+        applyListenerTaskExecutor(factory, "scoreboard-");
+        return factory;
+    }
+
+    /**
+     * Plain consumers for the match_results replay: partitions are assigned and read in parallel
+     * from a chosen position up to the end offset seen at start, with no group and no commits.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "thomascup.replay.enabled", havingValue = "true")
+    public ConsumerFactory<String, byte[]> replayConsumerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 5000); // Large polls, the listener only reduces in memory
+        props.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, 8 * 1024 * 1024);
+        props.put(ConsumerConfig.FETCH_MAX_BYTES_CONFIG, 64 * 1024 * 1024);
+        return instrumented(new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new ByteArrayDeserializer()));
+    }
+
+    /**
+     * Batch consumer that materializes {@code tracking-events} into the local EventRepository.
+     * Each replica has its own group ({@code thomascup.events.kafka.group-id}), so every replica
+     * reads every event; a fresh group starts from the earliest retained event.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "thomascup.events.kafka.enabled", havingValue = "true")
+    public ConcurrentKafkaListenerContainerFactory<String, TrackingEvent> trackingEventKafkaListenerContainerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 2000); // Larger polls while catching up
+        JsonDeserializer<TrackingEvent> valueDeserializer = new JsonDeserializer<>(TrackingEvent.class, false);
+        valueDeserializer.addTrustedPackages("com.thomascup.model");
+        ConcurrentKafkaListenerContainerFactory<String, TrackingEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(instrumented(new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(valueDeserializer))));
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        applyListenerTaskExecutor(factory, "tracking-events-");
+        return factory;
+    }
+
+    /**
+     * Kafka client metrics per consumer, including records-lag per assigned partition
+     * (kafka_consumer_fetch_manager_records_lag); Boot only binds them for its own factory.
+     */
+    private <V> DefaultKafkaConsumerFactory<String, V> instrumented(DefaultKafkaConsumerFactory<String, V> factory) {
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
+    }
+
+    /**
+     * Record-mode DB writer: values the ErrorHandlingDeserializer rejected never reach the
+     * listener, so count them here before the record is skipped.
+     */
+    private void recoverDbWriterRecord(ConsumerRecord<?, ?> record, Exception exception) {
+        if (exception instanceof DeserializationException || exception.getCause() instanceof DeserializationException) {
+            PipelineMetrics.deserializationFailures(meterRegistry, record.topic(), "db-writer").increment();
+        }
+        logger.error("Skipping record from topic '{}' partition {} at offset {} after retries: {}",
+                record.topic(), record.partition(), record.offset(), exception.getMessage());
+    }
+
+    /**
+     * With offsets stored in the database the containers never commit to Kafka: records are
+     * never acknowledged and positions come from DbOffsetStore on assignment.
+     */
+    private void applyDbWriterOffsetStore(ConcurrentKafkaListenerContainerFactory<?, ?> factory) {
+        if ("database".equals(dbWriterOffsetStore)) {
+            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        }
+    }
+
+    /**
+     * Boot only switches its auto-configured listener factory to virtual threads, so do the same
+     * for ours: each consumer thread becomes a virtual thread and blocking JDBC calls no longer pin
+     * a platform thread.
+     */
+    private void applyListenerTaskExecutor(ConcurrentKafkaListenerContainerFactory<?, ?> factory, String threadNamePrefix) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+            executor.setVirtualThreads(true);
+            factory.getContainerProperties().setListenerTaskExecutor(executor);
+        }
+    }
 }
@@ -2,24 +2,64 @@ package com.thomascup.config;
 
 import com.thomascup.model.MatchHead;
 import com.thomascup.model.MatchResult;
+import com.thomascup.model.TrackingEvent;
+import com.thomascup.serialization.AvroSchemaRegistry;
+import com.thomascup.serialization.MatchHeadAvroSerializer;
+import com.thomascup.tracing.TracingProducerInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.DelegatingByTopicSerializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 @Configuration
 public class KafkaProducerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // How long send() may block a caller on a full buffer or missing metadata
+    @Value("${thomascup.kafka.producer.max-block-ms:60000}")
+    private long maxBlockMs;
+
+    // Topics whose MatchHead records are written as Avro binary instead of JSON
+    @Value("${thomascup.kafka.avro-topics:}")
+    private String[] avroTopics;
+
+    // Share of match records stamped with ingest/send trace headers (0 disables, 1 traces all)
+    @Value("${thomascup.tracing.sample-rate:0.01}")
+    private double traceSampleRate;
+
+    @Value("${thomascup.events.kafka.producer.linger-ms:20}")
+    private int trackingEventLingerMs;
+
+    @Value("${thomascup.events.kafka.producer.batch-size:131072}")
+    private int trackingEventBatchSize;
+
+    @Value("${thomascup.events.kafka.producer.compression-type:lz4}")
+    private String trackingEventCompression;
+
+    @Bean
+    public AvroSchemaRegistry avroSchemaRegistry() {
+        return new AvroSchemaRegistry();
+    }
+
     @Bean
     public ProducerFactory<String, MatchResult> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
@@ -35,13 +75,16 @@ public class KafkaProducerConfig {
         configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 33554432); // 32MB buffer
         configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true); // Prevent duplicates
         configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5); // Performance tuning
+        configProps.put(ProducerConfig.INTERCEPTOR_CLASSES_CONFIG, TracingProducerInterceptor.class.getName());
+        configProps.put(TracingProducerInterceptor.SAMPLE_RATE_CONFIG, traceSampleRate);
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
         
-        return new DefaultKafkaProducerFactory<>(configProps);
+        return instrumented(new DefaultKafkaProducerFactory<>(configProps));
     }
 
     @Bean
     public KafkaTemplate<String, MatchResult> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+        return instrumented(new KafkaTemplate<>(producerFactory()));
     }
 
     //version 2 
@@ -60,13 +103,78 @@ public class KafkaProducerConfig {
         configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 33554432); // 32MB buffer
         configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true); // Prevent duplicates
         configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5); // Performance tuning
+        configProps.put(ProducerConfig.INTERCEPTOR_CLASSES_CONFIG, TracingProducerInterceptor.class.getName());
+        configProps.put(TracingProducerInterceptor.SAMPLE_RATE_CONFIG, traceSampleRate);
         
-        return new DefaultKafkaProducerFactory<>(configProps);
+        if (avroTopics.length == 0) {
+            return instrumented(new DefaultKafkaProducerFactory<>(configProps));
+        }
+        return instrumented(new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), matchHeadValueSerializer()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Serializer<MatchHead> matchHeadValueSerializer() {
+        Map<Pattern, Serializer<?>> byTopic = new HashMap<>();
+        MatchHeadAvroSerializer avroSerializer = new MatchHeadAvroSerializer(avroSchemaRegistry());
+        for (String topic : avroTopics) {
+            byTopic.put(Pattern.compile(Pattern.quote(topic.trim())), avroSerializer);
+        }
+        // Topics not listed keep the JSON format
+        return (Serializer<MatchHead>) (Serializer<?>) new DelegatingByTopicSerializer(byTopic, new JsonSerializer<>());
     }
 
     //version 2
     @Bean
     public KafkaTemplate<String, MatchHead> matchHeadKafkaTemplate() {
-        return new KafkaTemplate<>(matchHeadProducerFactory());
+        return instrumented(new KafkaTemplate<>(matchHeadProducerFactory()));
+    }
+
+    /**
+     * Tracking events are small and many, so this producer trades a little latency for fewer,
+     * larger compressed requests: concurrent POST /events calls share batches.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "thomascup.events.kafka.enabled", havingValue = "true")
+    public ProducerFactory<String, TrackingEvent> trackingEventProducerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false); // Consumers bind to TrackingEvent by default type
+
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true); // Keeps per-trackingId order across retries
+        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, trackingEventLingerMs); // Wait to fill batches
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, trackingEventBatchSize); // Per-partition batch
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, trackingEventCompression); // Whole batches compress well
+        configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 67108864); // 64MB buffer
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
+
+        return instrumented(new DefaultKafkaProducerFactory<>(configProps));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "thomascup.events.kafka.enabled", havingValue = "true")
+    public KafkaTemplate<String, TrackingEvent> trackingEventKafkaTemplate() {
+        return instrumented(new KafkaTemplate<>(trackingEventProducerFactory()));
+    }
+
+    /**
+     * Kafka client metrics (buffer, batch size, request latency) per producer; Boot only binds
+     * them for its own auto-configured factory.
+     */
+    private <V> DefaultKafkaProducerFactory<String, V> instrumented(DefaultKafkaProducerFactory<String, V> factory) {
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
+    }
+
+    /**
+     * The template's spring.kafka.template timer runs from send() to the broker ack; tag it by
+     * topic so send-to-ack latency can be split per topic.
+     */
+    private <V> KafkaTemplate<String, V> instrumented(KafkaTemplate<String, V> template) {
+        template.setMicrometerTagsProvider(record -> Map.of("topic", record.topic()));
+        return template;
     }
 }
@@ -0,0 +1,62 @@
+package com.thomascup.config;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.thomascup.mapper.KafkaValueDecoder;
+import com.thomascup.model.MatchAggregate;
+import com.thomascup.streams.MatchAggregationTopology;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.errors.LogAndContinueExceptionHandler;
+import org.apache.kafka.streams.kstream.KTable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafkaStreams;
+import org.springframework.kafka.annotation.KafkaStreamsDefaultConfiguration;
+import org.springframework.kafka.config.KafkaStreamsConfiguration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+@EnableKafkaStreams
+@ConditionalOnProperty(name = "thomascup.streams.enabled", havingValue = "true")
+public class KafkaStreamsConfig {
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Value("${thomascup.streams.application-id:thomas-cup-match-aggregator}")
+    private String applicationId;
+
+    @Value("${thomascup.streams.state-dir:${java.io.tmpdir}/thomas-cup-streams}")
+    private String stateDir;
+
+    // host:port other instances redirect interactive queries to
+    @Value("${thomascup.streams.application-server:localhost:${server.port:8080}}")
+    private String applicationServer;
+
+    @Bean(name = KafkaStreamsDefaultConfiguration.DEFAULT_STREAMS_CONFIG_BEAN_NAME)
+    public KafkaStreamsConfiguration kafkaStreamsConfiguration() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, applicationId);
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir);
+        props.put(StreamsConfig.APPLICATION_SERVER_CONFIG, applicationServer);
+        props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.StringSerde.class);
+        props.put(StreamsConfig.DEFAULT_DESERIALIZATION_EXCEPTION_HANDLER_CLASS_CONFIG, LogAndContinueExceptionHandler.class);
+        props.put(StreamsConfig.PROCESSING_GUARANTEE_CONFIG, StreamsConfig.EXACTLY_ONCE_V2); // Store, changelog and output stay in step
+        return new KafkaStreamsConfiguration(props);
+    }
+
+    @Bean
+    public KTable<String, MatchAggregate> matchAggregates(StreamsBuilder streamsBuilder, KafkaValueDecoder kafkaValueDecoder) {
+        JsonMapper mapper = JsonMapper.builder().findAndAddModules().build();
+        return MatchAggregationTopology.build(streamsBuilder,
+                MatchAggregationTopology.matchResultsSerde(kafkaValueDecoder, mapper),
+                MatchAggregationTopology.matchResultSerde(kafkaValueDecoder, mapper),
+                MatchAggregationTopology.matchAggregateSerde(mapper));
+    }
+}
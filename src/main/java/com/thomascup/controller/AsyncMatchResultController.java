@@ -0,0 +1,96 @@
+package com.thomascup.controller;
+
+import com.thomascup.model.MatchResult;
+import com.thomascup.service.MatchResultIngestService;
+import com.thomascup.service.ProducerBackpressure;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Non-blocking variant of {@link MatchResultController}: responses complete when Kafka
+ * acknowledges the record (with its partition and offset in response headers), and requests
+ * are shed with 429/503 instead of blocking a request thread on a full producer buffer.
+ */
+@Tag(name = "Match Results", description = "Endpoints for posting match results to Kafka")
+@RestController
+@RequestMapping("/api")
+@ConditionalOnProperty(name = "thomascup.api.async.enabled", havingValue = "true")
+public class AsyncMatchResultController {
+    private static final Logger log = LoggerFactory.getLogger(AsyncMatchResultController.class);
+    static final String PARTITION_HEADER = "X-Kafka-Partition";
+    static final String OFFSET_HEADER = "X-Kafka-Offset";
+
+    @Autowired
+    private MatchResultIngestService ingestService;
+
+    @Autowired
+    private ProducerBackpressure backpressure;
+
+    @Operation(summary = "Send a match result", description = "Posts a match result event to Kafka and answers once it is acknowledged.")
+    @PostMapping("/match-results")
+    public CompletableFuture<ResponseEntity<String>> sendMatchResult(@RequestBody MatchResult matchResult) {
+        return send(ingestService::submitMatchResult, matchResult, "Match result sent to Kafka");
+    }
+
+    @Operation(summary = "Start a new game", description = "Posts a new game event to the new-game topic and answers once it is acknowledged.")
+    @PostMapping("/new-game")
+    public CompletableFuture<ResponseEntity<String>> startNewGame(@RequestBody MatchResult matchResult) {
+        return send(ingestService::startNewGame, matchResult, "New game started and sent to Kafka");
+    }
+
+    @Operation(summary = "Update match score", description = "Posts a score update event to the update-score topic and answers once it is acknowledged.")
+    @PostMapping("/update-score")
+    public CompletableFuture<ResponseEntity<String>> updateScore(@RequestBody MatchResult matchResult) {
+        return send(ingestService::updateScore, matchResult, "Score update sent to Kafka");
+    }
+
+    private CompletableFuture<ResponseEntity<String>> send(
+            Function<MatchResult, CompletableFuture<SendResult<String, MatchResult>>> sender,
+            MatchResult matchResult, String message) {
+        switch (backpressure.tryAcquire()) {
+            case TOO_MANY_REQUESTS:
+                return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header("Retry-After", "1").body("Too many pending sends, retry later"));
+            case PRODUCER_SATURATED:
+                return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header("Retry-After", "1").body("Kafka producer buffer is full, retry later"));
+            default:
+                break;
+        }
+        CompletableFuture<SendResult<String, MatchResult>> future;
+        try {
+            future = sender.apply(matchResult);
+        } catch (RuntimeException e) {
+            backpressure.release();
+            throw e;
+        }
+        return future.handle((result, ex) -> {
+            backpressure.release();
+            if (ex != null) {
+                log.error("Kafka send failed for match {}", matchResult.getId(), ex);
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Failed to send to Kafka");
+            }
+            if (result == null || result.getRecordMetadata() == null) {
+                return ResponseEntity.ok(message); // Duplicate, nothing was sent
+            }
+            return ResponseEntity.ok()
+                    .header(PARTITION_HEADER, String.valueOf(result.getRecordMetadata().partition()))
+                    .header(OFFSET_HEADER, String.valueOf(result.getRecordMetadata().offset()))
+                    .body(message);
+        });
+    }
+}
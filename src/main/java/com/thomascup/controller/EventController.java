@@ -1,6 +1,9 @@
 package com.thomascup.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.thomascup.mapper.FlexibleJsonMapper;
+import com.thomascup.model.BulkIngestResult;
+import com.thomascup.model.EventPage;
 import com.thomascup.model.TrackingEvent;
 import com.thomascup.service.EventService;
 import jakarta.validation.Valid;
@@ -9,16 +12,22 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.Instant;
 import java.util.Map;
 
 @RestController
 public class EventController {
     private static final Logger log = LoggerFactory.getLogger(EventController.class);
+    private static final int MAX_PAGE_SIZE = 1000;
     @Autowired
     private EventService eventService;
     @Autowired
@@ -38,10 +47,14 @@ public class EventController {
         return ResponseEntity.status(HttpStatus.CREATED).body(saved);
     }
 
+    /**
+     * Lenient variant of {@code POST /events}: the body is read straight from the request stream,
+     * strings are trimmed and the timestamp may be ISO-8601 or epoch milliseconds.
+     */
     @PostMapping("/events/flexible")
-    public ResponseEntity<?> createEventFlexible(@RequestBody Map<String, Object> jsonBody) {
+    public ResponseEntity<?> createEventFlexible(InputStream body) throws IOException {
         try {
-            TrackingEvent event = jsonMapper.mapToRecord(jsonBody, TrackingEvent.class);
+            TrackingEvent event = jsonMapper.readRecord(body, TrackingEvent.class);
 
             // Business validation only
             if (event.timestamp().isAfter(Instant.now())) {
@@ -55,11 +68,54 @@ public class EventController {
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", e.getMessage()));
-        } catch (Exception e) {
-            log.error("Failed to process flexible event", e);
+        } catch (JsonProcessingException e) {
+            log.warn("Rejected malformed flexible event: {}", e.getOriginalMessage());
             return ResponseEntity.badRequest()
                     .body(Map.of("error", "Invalid JSON format"));
         }
     }
 
+    /**
+     * Bulk {@code /events/flexible}: a JSON array (or NDJSON) of events, each mapped and validated
+     * like a single one; rejected elements are reported by position.
+     */
+    @PostMapping("/events/flexible/bulk")
+    public ResponseEntity<?> createEventsFlexible(InputStream body) throws IOException {
+        // Malformed JSON is reported in the result; anything else is a server error
+        BulkIngestResult result = jsonMapper.readRecords(body, TrackingEvent.class, event -> {
+            if (event.timestamp().isAfter(Instant.now())) {
+                throw new IllegalArgumentException("timestamp must be in the past or present");
+            }
+            eventService.addEvent(event);
+        });
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/events/{trackingId}")
+    public ResponseEntity<?> getEvents(@PathVariable String trackingId,
+                                       @RequestParam(required = false) Instant from,
+                                       @RequestParam(required = false) Instant to,
+                                       @RequestParam(defaultValue = "100") int limit,
+                                       @RequestParam(required = false) String cursor) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "limit must be between 1 and " + MAX_PAGE_SIZE));
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "from must not be after to"));
+        }
+        try {
+            EventPage page = eventService.getEvents(trackingId, from, to, limit, cursor);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/events/{trackingId}/latest")
+    public ResponseEntity<TrackingEvent> getLatestEvent(@PathVariable String trackingId) {
+        return ResponseEntity.of(eventService.getLatestEvent(trackingId));
+    }
 }
@@ -0,0 +1,52 @@
+package com.thomascup.controller;
+
+import com.thomascup.model.MatchAggregate;
+import com.thomascup.service.MatchAggregateQueryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.state.HostInfo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.util.Optional;
+
+@Tag(name = "Match Aggregates", description = "Match winners derived by Kafka Streams, read from local state stores")
+@RestController
+@RequestMapping("/api/match-aggregates")
+@ConditionalOnProperty(name = "thomascup.streams.enabled", havingValue = "true")
+public class MatchAggregateController {
+    @Autowired
+    private MatchAggregateQueryService queryService;
+
+    @Operation(summary = "Get a match aggregate", description = "Returns games won per side and the match winner. Redirects to the instance that owns the match.")
+    @GetMapping("/{id}")
+    public ResponseEntity<MatchAggregate> getMatch(@PathVariable String id) {
+        if (!queryService.isQueryable()) {
+            return unavailable();
+        }
+        try {
+            Optional<HostInfo> owner = queryService.ownerOf(id);
+            if (owner.isPresent()) {
+                URI location = URI.create("http://" + owner.get().host() + ":" + owner.get().port() + "/api/match-aggregates/" + id);
+                return ResponseEntity.status(HttpStatus.TEMPORARY_REDIRECT).location(location).build();
+            }
+            return ResponseEntity.of(queryService.findLocal(id));
+        } catch (InvalidStateStoreException e) {
+            // Store is migrating during a rebalance
+            return unavailable();
+        }
+    }
+
+    private static ResponseEntity<MatchAggregate> unavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+}
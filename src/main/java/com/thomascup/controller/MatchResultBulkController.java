@@ -0,0 +1,38 @@
+package com.thomascup.controller;
+
+import com.thomascup.model.BulkIngestResult;
+import com.thomascup.service.BulkMatchResultIngester;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@Tag(name = "Match Results", description = "Endpoints for posting match results to Kafka")
+@RestController
+@RequestMapping("/api")
+public class MatchResultBulkController {
+    @Autowired
+    private BulkMatchResultIngester bulkIngester;
+
+    @Operation(summary = "Send match results in bulk",
+            description = "Streams NDJSON (one match result per line) or a JSON array to the topic chosen by target: " +
+                    "match-results, new-game or update-score. Returns per-line accept/reject counts.")
+    @PostMapping(value = "/match-results/bulk", consumes = {"application/x-ndjson", "application/json"})
+    public ResponseEntity<BulkIngestResult> sendBulk(InputStream body,
+                                                     @RequestParam(defaultValue = "match-results") String target) throws IOException {
+        BulkMatchResultIngester.Target resolved;
+        try {
+            resolved = BulkMatchResultIngester.Target.valueOf(target.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(bulkIngester.ingest(body, resolved));
+    }
+}
@@ -0,0 +1,38 @@
+package com.thomascup.controller;
+
+import com.thomascup.model.LiveMatch;
+import com.thomascup.service.LiveScoreboard;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@Tag(name = "Scoreboard", description = "Latest match scores served from memory")
+@RestController
+@RequestMapping("/api/matches")
+@ConditionalOnProperty(name = "thomascup.scoreboard.enabled", havingValue = "true", matchIfMissing = true)
+public class ScoreboardController {
+    @Autowired
+    private LiveScoreboard scoreboard;
+
+    @Operation(summary = "Get a match", description = "Returns the latest score of every game of the match.")
+    @GetMapping("/{id}")
+    public ResponseEntity<LiveMatch> getMatch(@PathVariable String id) {
+        return ResponseEntity.of(scoreboard.find(id));
+    }
+
+    @Operation(summary = "List matches", description = "With live=true only undecided matches updated recently, otherwise the most recently updated matches.")
+    @GetMapping
+    public List<LiveMatch> getMatches(@RequestParam(defaultValue = "false") boolean live,
+                                      @RequestParam(defaultValue = "100") int limit) {
+        return live ? scoreboard.live() : scoreboard.all(Math.max(0, limit));
+    }
+}
@@ -1,93 +1,122 @@
 package com.thomascup.mapper;
 
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thomascup.model.BulkIngestResult;
 import org.springframework.stereotype.Component;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.RecordComponent;
-import java.time.Instant;
-import java.time.format.DateTimeParseException;
-import java.util.Arrays;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 @Component
 public class FlexibleJsonMapper {
+    private static final int MAX_LISTED_REJECTIONS = 100;
 
-    public <T> T mapToRecord(Map<String, Object> jsonBody, Class<T> recordClass) {
-        if (!recordClass.isRecord()) {
-            throw new IllegalArgumentException("Class must be a record type");
-        }
-
-        try {
-            RecordComponent[] components = recordClass.getRecordComponents();
-            Object[] args = new Object[components.length];
+    // Only used as the parser codec for nested objects/arrays; top-level fields are read token by token
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
-            // Extract and convert each field
-            for (int i = 0; i < components.length; i++) {
-                RecordComponent component = components[i];
-                String fieldName = component.getName();
-                Class<?> fieldType = component.getType();
-
-                Object value = extractAndConvertField(jsonBody, fieldName, fieldType);
-
-                // Validate mandatory fields
-                if (value == null) {
-                    throw new IllegalArgumentException(fieldName + " is mandatory");
-                }
+    /**
+     * Binds a parsed JSON object to {@code recordClass}; see {@link RecordBinder} for the
+     * supported component types and conversions.
+     */
+    public <T> T mapToRecord(Map<String, Object> jsonBody, Class<T> recordClass) {
+        return RecordBinder.of(recordClass).bind(jsonBody);
+    }
 
-                args[i] = value;
+    /**
+     * Same mapping as {@link #mapToRecord}, read straight from the token stream of a single JSON
+     * object without building a Map. Unknown fields are skipped.
+     *
+     * @throws IOException              if the body is not a well-formed JSON object
+     * @throws IllegalArgumentException if a field is missing or cannot be converted
+     */
+    public <T> T readRecord(InputStream json, Class<T> recordClass) throws IOException {
+        RecordBinder<T> binder = RecordBinder.of(recordClass);
+        try (JsonParser parser = objectMapper.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object");
             }
-
-            Constructor<T> constructor = recordClass.getDeclaredConstructor(
-                    Arrays.stream(components)
-                            .map(RecordComponent::getType)
-                            .toArray(Class[]::new)
-            );
-
-            return constructor.newInstance(args);
-
-        } catch (ReflectiveOperationException e) {
-            throw new RuntimeException("Failed to create " + recordClass.getSimpleName(), e);
+            return binder.bindRaw(readFields(parser, binder));
         }
     }
 
-    private Object extractAndConvertField(Map<String, Object> jsonBody, String fieldName, Class<?> targetType) {
-        Object rawValue = jsonBody.get(fieldName);
-
-        if (rawValue == null) {
-            return null;
-        }
-
-        // Handle String fields
-        if (targetType == String.class) {
-            String stringValue = String.valueOf(rawValue).trim();
-            if (stringValue.isEmpty()) {
-                throw new IllegalArgumentException(fieldName + " cannot be empty");
+    /**
+     * Streams a JSON array (or newline-delimited objects) of records into {@code sink}, one at a
+     * time. Elements that fail binding, or that {@code sink} rejects with an
+     * {@link IllegalArgumentException}, are reported by 1-based position; malformed JSON stops
+     * reading.
+     */
+    public <T> BulkIngestResult readRecords(InputStream json, Class<T> recordClass, Consumer<T> sink) throws IOException {
+        RecordBinder<T> binder = RecordBinder.of(recordClass);
+        int accepted = 0;
+        int rejected = 0;
+        List<BulkIngestResult.Rejection> rejections = new ArrayList<>();
+        // Element being read; malformed JSON between elements is reported for the next one
+        int position = 1;
+        try (JsonParser parser = objectMapper.createParser(json)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                token = parser.nextToken();
+            }
+            while (token != null && token != JsonToken.END_ARRAY) {
+                String error = null;
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    error = "Expected a JSON object";
+                } else {
+                    Object[] raw = readFields(parser, binder);
+                    try {
+                        sink.accept(binder.bindRaw(raw));
+                    } catch (IllegalArgumentException e) {
+                        error = e.getMessage();
+                    }
+                }
+                if (error == null) {
+                    accepted++;
+                } else if (rejected++ < MAX_LISTED_REJECTIONS) {
+                    rejections.add(new BulkIngestResult.Rejection(position, error));
+                }
+                position++;
+                token = parser.nextToken();
+            }
+        } catch (JsonProcessingException e) {
+            if (rejected++ < MAX_LISTED_REJECTIONS) {
+                rejections.add(new BulkIngestResult.Rejection(position, "Malformed JSON, stopped reading: " + e.getOriginalMessage()));
             }
-            return stringValue;
-        }
-
-        // Handle Instant fields
-        if (targetType == Instant.class) {
-            return convertToInstant(rawValue, fieldName);
         }
-
-        // Add more type conversions as needed
-        return rawValue;
+        return new BulkIngestResult(accepted, rejected, List.copyOf(rejections));
     }
 
-    private Instant convertToInstant(Object value, String fieldName) {
-        try {
-            if (value instanceof String) {
-                return Instant.parse((String) value);
-            } else if (value instanceof Number) {
-                return Instant.ofEpochMilli(((Number) value).longValue());
-            } else {
-                throw new IllegalArgumentException(fieldName + " must be a valid ISO timestamp string or epoch milliseconds");
+    /**
+     * Reads the object the parser is positioned on (at START_OBJECT) into component order.
+     */
+    private static Object[] readFields(JsonParser parser, RecordBinder<?> binder) throws IOException {
+        Object[] raw = new Object[binder.componentCount()];
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            int index = binder.indexOf(parser.currentName());
+            JsonToken value = parser.nextToken();
+            if (index < 0) {
+                parser.skipChildren();
+                continue;
             }
-        } catch (DateTimeParseException e) {
-            throw new IllegalArgumentException(fieldName + " must be a valid ISO format timestamp", e);
+            raw[index] = switch (value) {
+                case VALUE_STRING -> parser.getText();
+                case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getNumberValue();
+                case VALUE_TRUE -> Boolean.TRUE;
+                case VALUE_FALSE -> Boolean.FALSE;
+                case VALUE_NULL -> null;
+                case START_OBJECT -> parser.readValueAs(Map.class);
+                case START_ARRAY -> parser.readValueAs(List.class);
+                default -> throw new JsonParseException(parser, "Unexpected token " + value);
+            };
         }
+        return raw;
     }
-
-
 }
@@ -0,0 +1,128 @@
+package com.thomascup.mapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.thomascup.model.MatchHead;
+import com.thomascup.model.MatchResult;
+import com.thomascup.model.MatchScores;
+import com.thomascup.serialization.AvroSchemaRegistry;
+import com.thomascup.serialization.MatchHeadAvroDeserializer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decodes Kafka record values that may arrive in several shapes into a model type:
+ * an already typed object, a JSON string, raw JSON bytes, or a JSON string that was itself
+ * JSON-encoded (a quoted string, as produced by serializing a String with JsonSerializer).
+ * <p>
+ * Readers are built once per target type at construction and shared by all listeners;
+ * bytes are parsed directly without being turned into a String first.
+ * <p>
+ * Records of topics listed in {@code thomascup.kafka.avro-topics} carry a MatchHead as Avro binary
+ * instead; {@link #decodeResults} recognises them by the {@value AvroSchemaRegistry#FINGERPRINT_HEADER}
+ * header.
+ */
+public class KafkaValueDecoder {
+    private final ObjectReader stringReader;
+    private final Map<Class<?>, ObjectReader> readers = new HashMap<>();
+    private final MatchHeadAvroDeserializer avroHeads;
+
+    public KafkaValueDecoder(ObjectMapper objectMapper, Class<?>... targetTypes) {
+        this(objectMapper, new AvroSchemaRegistry(), targetTypes);
+    }
+
+    public KafkaValueDecoder(ObjectMapper objectMapper, AvroSchemaRegistry avroSchemaRegistry, Class<?>... targetTypes) {
+        this.stringReader = objectMapper.readerFor(String.class);
+        this.avroHeads = new MatchHeadAvroDeserializer(avroSchemaRegistry);
+        for (Class<?> targetType : targetTypes) {
+            readers.put(targetType, objectMapper.readerFor(targetType));
+        }
+    }
+
+    public <T> T decode(Object value, Class<T> targetType) {
+        if (targetType.isInstance(value)) {
+            return targetType.cast(value);
+        }
+        ObjectReader reader = readers.get(targetType);
+        if (reader == null) {
+            throw new IllegalArgumentException("No decoder registered for " + targetType.getSimpleName());
+        }
+        try {
+            if (value instanceof byte[] bytes) {
+                return isQuoted(bytes)
+                        ? reader.readValue(stringReader.<String>readValue(bytes))
+                        : reader.readValue(bytes);
+            } else if (value instanceof String json) {
+                return isQuoted(json)
+                        ? reader.readValue(stringReader.<String>readValue(json))
+                        : reader.readValue(json);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid " + targetType.getSimpleName() + " JSON", e);
+        }
+        throw new IllegalArgumentException("Expected " + targetType.getSimpleName() + ", String or byte[], got: " +
+                (value != null ? value.getClass().getSimpleName() : "null"));
+    }
+
+    public List<MatchResult> decodeResults(ConsumerRecord<?, ?> record) {
+        return decodeResults(record.topic(), record.headers(), record.value());
+    }
+
+    /**
+     * Decodes a value of a topic shared by per-game results and MatchHead snapshots. A MatchHead,
+     * typed or Avro written, yields one MatchResult per game it lists; anything else must be a
+     * single MatchResult.
+     *
+     * @throws IllegalArgumentException if the value is neither
+     */
+    public List<MatchResult> decodeResults(String topic, Headers headers, Object value) {
+        if (value instanceof MatchHead head) {
+            return perGame(head);
+        }
+        if (value instanceof byte[] bytes && headers != null && headers.lastHeader(AvroSchemaRegistry.FINGERPRINT_HEADER) != null) {
+            try {
+                return perGame(avroHeads.deserialize(topic, headers, bytes));
+            } catch (SerializationException | IllegalStateException e) {
+                throw new IllegalArgumentException("Invalid Avro MatchHead", e);
+            }
+        }
+        return List.of(decode(value, MatchResult.class));
+    }
+
+    private static List<MatchResult> perGame(MatchHead head) {
+        List<MatchScores> scores = head.getScores() != null ? head.getScores() : List.of();
+        List<MatchResult> results = new ArrayList<>(scores.size());
+        for (MatchScores score : scores) {
+            results.add(new MatchResult(head.getId(), head.getTeamA(), head.getTeamB(),
+                    score.getTeamAScore(), score.getTeamBScore(), score.getWinner(),
+                    head.getMatchDateTime(), score.getGameNumber()));
+        }
+        return results;
+    }
+
+    private static boolean isQuoted(byte[] json) {
+        for (byte b : json) {
+            if (!Character.isWhitespace(b)) {
+                return b == '"';
+            }
+        }
+        return false;
+    }
+
+    private static boolean isQuoted(String json) {
+        for (int i = 0; i < json.length(); i++) {
+            char c = json.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                return c == '"';
+            }
+        }
+        return false;
+    }
+}
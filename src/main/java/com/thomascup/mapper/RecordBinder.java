@@ -0,0 +1,291 @@
+package com.thomascup.mapper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Binds loosely typed JSON values to a record through its canonical constructor.
+ * <p>
+ * Everything reflective (components, converters, the constructor handle) is resolved once per
+ * record class and cached in a {@link ClassValue}; binding is then a loop over precomputed
+ * converters and one {@link MethodHandle} call. Values are converted leniently: strings are
+ * trimmed and must not be empty, numbers and booleans also accept their string form, enums match
+ * case-insensitively, {@link Instant} accepts ISO-8601 or epoch milliseconds, and nested records
+ * bind from nested objects. Every component is mandatory.
+ */
+public final class RecordBinder<T> {
+
+    /** Converts one raw JSON value ({@code String}, {@code Number}, {@code Boolean}, {@code Map}, ...). */
+    @FunctionalInterface
+    interface Converter {
+        Object convert(Object raw, String fieldName);
+    }
+
+    private static final ClassValue<RecordBinder<?>> BINDERS = new ClassValue<>() {
+        @Override
+        protected RecordBinder<?> computeValue(Class<?> type) {
+            return new RecordBinder<>(type);
+        }
+    };
+
+    private final Class<T> recordClass;
+    private final String[] names;
+    private final Converter[] converters;
+    private final Map<String, Integer> indexByName;
+    private final MethodHandle constructor;
+
+    @SuppressWarnings("unchecked")
+    public static <T> RecordBinder<T> of(Class<T> recordClass) {
+        if (!recordClass.isRecord()) {
+            throw new IllegalArgumentException("Class must be a record type");
+        }
+        return (RecordBinder<T>) BINDERS.get(recordClass);
+    }
+
+    private RecordBinder(Class<T> recordClass) {
+        this.recordClass = recordClass;
+        RecordComponent[] components = recordClass.getRecordComponents();
+        this.names = new String[components.length];
+        this.converters = new Converter[components.length];
+        this.indexByName = new HashMap<>();
+        Class<?>[] types = new Class<?>[components.length];
+        for (int i = 0; i < components.length; i++) {
+            names[i] = components[i].getName();
+            types[i] = components[i].getType();
+            converters[i] = converterFor(types[i]);
+            indexByName.put(names[i], i);
+        }
+        try {
+            Constructor<T> canonical = recordClass.getDeclaredConstructor(types);
+            canonical.setAccessible(true);
+            this.constructor = MethodHandles.lookup().unreflectConstructor(canonical)
+                    .asSpreader(Object[].class, components.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No canonical constructor for " + recordClass.getSimpleName(), e);
+        }
+    }
+
+    public int componentCount() {
+        return names.length;
+    }
+
+    /**
+     * @return the component index of {@code name}, or -1 if the record has no such component
+     */
+    public int indexOf(String name) {
+        Integer index = indexByName.get(name);
+        return index != null ? index : -1;
+    }
+
+    public T bind(Map<String, Object> source) {
+        return bind(source, "");
+    }
+
+    private T bind(Map<?, ?> source, String path) {
+        Object[] raw = new Object[names.length];
+        for (int i = 0; i < names.length; i++) {
+            raw[i] = source.get(names[i]);
+        }
+        return bindRaw(raw, path);
+    }
+
+    /**
+     * Converts raw values given in component order (see {@link #indexOf}) and constructs the record;
+     * {@code raw} is reused as the argument array.
+     */
+    public T bindRaw(Object[] raw) {
+        return bindRaw(raw, "");
+    }
+
+    private T bindRaw(Object[] raw, String path) {
+        for (int i = 0; i < names.length; i++) {
+            String fieldName = path.isEmpty() ? names[i] : path + names[i];
+            if (raw[i] == null) {
+                throw new IllegalArgumentException(fieldName + " is mandatory");
+            }
+            raw[i] = converters[i].convert(raw[i], fieldName);
+        }
+        try {
+            return recordClass.cast((Object) constructor.invokeExact(raw));
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to create " + recordClass.getSimpleName(), e);
+        }
+    }
+
+    private static Converter converterFor(Class<?> type) {
+        if (type == String.class) {
+            return RecordBinder::toNonEmptyString;
+        }
+        if (type == Instant.class) {
+            return RecordBinder::toInstant;
+        }
+        if (type == int.class || type == Integer.class) {
+            return (raw, field) -> toInteger(raw, field, BigDecimal::intValueExact);
+        }
+        if (type == long.class || type == Long.class) {
+            return (raw, field) -> toInteger(raw, field, BigDecimal::longValueExact);
+        }
+        if (type == short.class || type == Short.class) {
+            return (raw, field) -> toInteger(raw, field, BigDecimal::shortValueExact);
+        }
+        if (type == double.class || type == Double.class) {
+            return (raw, field) -> raw instanceof Number n ? n.doubleValue() : toNumber(raw, field, "a number").doubleValue();
+        }
+        if (type == float.class || type == Float.class) {
+            return (raw, field) -> raw instanceof Number n ? n.floatValue() : toNumber(raw, field, "a number").floatValue();
+        }
+        if (type == BigDecimal.class) {
+            return (raw, field) -> toNumber(raw, field, "a number");
+        }
+        if (type == BigInteger.class) {
+            return (raw, field) -> toInteger(raw, field, BigDecimal::toBigIntegerExact);
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return RecordBinder::toBoolean;
+        }
+        if (type.isEnum()) {
+            return enumConverter(type);
+        }
+        if (type == UUID.class) {
+            return (raw, field) -> parse(raw, field, "a UUID", UUID::fromString);
+        }
+        if (type == LocalDate.class) {
+            return (raw, field) -> parse(raw, field, "an ISO date", LocalDate::parse);
+        }
+        if (type == LocalDateTime.class) {
+            return (raw, field) -> parse(raw, field, "an ISO date-time", LocalDateTime::parse);
+        }
+        if (type == OffsetDateTime.class) {
+            return (raw, field) -> parse(raw, field, "an ISO date-time with offset", OffsetDateTime::parse);
+        }
+        if (type == Duration.class) {
+            return (raw, field) -> parse(raw, field, "an ISO duration", Duration::parse);
+        }
+        if (type.isRecord()) {
+            return (raw, field) -> {
+                if (!(raw instanceof Map<?, ?> nested)) {
+                    throw new IllegalArgumentException(field + " must be an object");
+                }
+                return RecordBinder.of(type).bind(nested, field + ".");
+            };
+        }
+        return (raw, field) -> {
+            if (!type.isInstance(raw)) {
+                throw new IllegalArgumentException(field + " must be of type " + type.getSimpleName());
+            }
+            return raw;
+        };
+    }
+
+    private static String toNonEmptyString(Object raw, String fieldName) {
+        String value = (raw instanceof String s ? s : String.valueOf(raw)).trim();
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException(fieldName + " cannot be empty");
+        }
+        return value;
+    }
+
+    private static Instant toInstant(Object raw, String fieldName) {
+        try {
+            if (raw instanceof String s) {
+                return Instant.parse(s);
+            } else if (raw instanceof Number n) {
+                return Instant.ofEpochMilli(n.longValue());
+            }
+            throw new IllegalArgumentException(fieldName + " must be a valid ISO timestamp string or epoch milliseconds");
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(fieldName + " must be a valid ISO format timestamp", e);
+        }
+    }
+
+    private static BigDecimal toNumber(Object raw, String fieldName, String expected) {
+        try {
+            if (raw instanceof BigDecimal d) {
+                return d;
+            } else if (raw instanceof Integer || raw instanceof Long || raw instanceof Short || raw instanceof Byte) {
+                return BigDecimal.valueOf(((Number) raw).longValue());
+            } else if (raw instanceof BigInteger i) {
+                return new BigDecimal(i);
+            } else if (raw instanceof Number n) {
+                return new BigDecimal(n.toString());
+            } else if (raw instanceof String s) {
+                return new BigDecimal(s.trim());
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException(fieldName + " must be " + expected);
+    }
+
+    private static Object toInteger(Object raw, String fieldName, Function<BigDecimal, ?> exact) {
+        try {
+            return exact.apply(toNumber(raw, fieldName, "an integer"));
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(fieldName + " must be an integer in range", e);
+        }
+    }
+
+    private static Boolean toBoolean(Object raw, String fieldName) {
+        if (raw instanceof Boolean b) {
+            return b;
+        }
+        if (raw instanceof String s) {
+            String value = s.trim();
+            if (value.equalsIgnoreCase("true")) {
+                return Boolean.TRUE;
+            } else if (value.equalsIgnoreCase("false")) {
+                return Boolean.FALSE;
+            }
+        }
+        throw new IllegalArgumentException(fieldName + " must be true or false");
+    }
+
+    private static Converter enumConverter(Class<?> type) {
+        Map<String, Object> constants = new LinkedHashMap<>();
+        for (Object constant : type.getEnumConstants()) {
+            constants.put(((Enum<?>) constant).name().toUpperCase(Locale.ROOT), constant);
+        }
+        return (raw, field) -> {
+            Object constant = raw instanceof String s ? constants.get(s.trim().toUpperCase(Locale.ROOT)) : null;
+            if (constant == null) {
+                throw new IllegalArgumentException(field + " must be one of " + constants.keySet());
+            }
+            return constant;
+        };
+    }
+
+    private interface Parser<R> {
+        R parse(String value);
+    }
+
+    private static <R> R parse(Object raw, String fieldName, String expected, Parser<R> parser) {
+        if (raw instanceof String s) {
+            try {
+                return parser.parse(s.trim());
+            } catch (RuntimeException e) {
+                // Reported below
+            }
+        }
+        throw new IllegalArgumentException(fieldName + " must be " + expected);
+    }
+}
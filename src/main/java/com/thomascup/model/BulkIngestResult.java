@@ -0,0 +1,11 @@
+package com.thomascup.model;
+
+import java.util.List;
+
+/**
+ * Summary of a bulk ingest request. Positions are 1-based (line number for NDJSON,
+ * element number for a JSON array); only the first rejections are listed.
+ */
+public record BulkIngestResult(int accepted, int rejected, List<Rejection> rejections) {
+    public record Rejection(int position, String error) {}
+}
@@ -0,0 +1,11 @@
+package com.thomascup.model;
+
+import java.util.List;
+
+/**
+ * One page of tracking events in timestamp order.
+ *
+ * @param nextCursor opaque cursor for the following page, {@code null} on the last page
+ */
+public record EventPage(List<TrackingEvent> events, String nextCursor) {
+}
@@ -0,0 +1,70 @@
+package com.thomascup.model;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable scoreboard entry for one match: the latest score of each game, games won per side
+ * and the winner once a side has two games. Every update produces a new instance, so readers
+ * never see a half-applied change.
+ *
+ * @param updatedAt Kafka timestamp of the newest record applied, used to tell live matches from
+ *                  abandoned ones
+ */
+public record LiveMatch(String id, String teamA, String teamB, List<GameScore> games,
+                        int teamAGames, int teamBGames, String winner, Instant updatedAt) {
+
+    public record GameScore(int gameNumber, int teamAScore, int teamBScore, String winner, LocalDateTime matchDateTime) {
+    }
+
+    /**
+     * @return the match with {@code result} applied by {@link MatchAggregate#apply}, or
+     * {@code previous} itself if the update is older than the game score already known or breaks
+     * the {@link MatchScores} rules
+     */
+    public static LiveMatch apply(LiveMatch previous, MatchResult result, Instant recordTime) {
+        MatchAggregate aggregate = previous != null ? previous.toAggregate() : new MatchAggregate();
+        aggregate.apply(result);
+        if (aggregate.getGames().isEmpty()) {
+            return previous; // First update of the match was rejected
+        }
+        if (previous != null && of(aggregate, previous.updatedAt).equals(previous)) {
+            return previous;
+        }
+        Instant updatedAt = previous != null && previous.updatedAt.isAfter(recordTime) ? previous.updatedAt : recordTime;
+        return of(aggregate, updatedAt);
+    }
+
+    public boolean isDecided() {
+        return teamAGames >= 2 || teamBGames >= 2;
+    }
+
+    private static LiveMatch of(MatchAggregate aggregate, Instant updatedAt) {
+        List<GameScore> games = new ArrayList<>(aggregate.getGames().size());
+        aggregate.getGames().forEach((gameNumber, game) -> games.add(new GameScore(gameNumber,
+                game.getTeamAScore(), game.getTeamBScore(), game.getWinner(), game.getUpdatedAt())));
+        return new LiveMatch(aggregate.getId(), aggregate.getTeamA(), aggregate.getTeamB(), List.copyOf(games),
+                aggregate.getTeamAGames(), aggregate.getTeamBGames(), aggregate.getWinner(), updatedAt);
+    }
+
+    private MatchAggregate toAggregate() {
+        MatchAggregate aggregate = new MatchAggregate();
+        aggregate.setId(id);
+        aggregate.setTeamA(teamA);
+        aggregate.setTeamB(teamB);
+        for (GameScore score : games) {
+            MatchAggregate.Game game = new MatchAggregate.Game();
+            game.setTeamAScore(score.teamAScore());
+            game.setTeamBScore(score.teamBScore());
+            game.setWinner(score.winner());
+            game.setUpdatedAt(score.matchDateTime());
+            aggregate.getGames().put(score.gameNumber(), game);
+        }
+        aggregate.setTeamAGames(teamAGames);
+        aggregate.setTeamBGames(teamBGames);
+        aggregate.setWinner(winner);
+        return aggregate;
+    }
+}
@@ -0,0 +1,87 @@
+package com.thomascup.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Running state of one match (best of 3 games), folded from its game score updates.
+ * <p>
+ * Each game keeps its newest score by {@code matchDateTime}; a game counts for a side once
+ * {@link MatchScores#isGameOver} says it is over, and the match is won by the first side to two
+ * games. Updates that break the scoring rules of {@link MatchScores} are ignored.
+ */
+@Data
+@NoArgsConstructor
+public class MatchAggregate {
+    private String id;
+    private String teamA;
+    private String teamB;
+    private Map<Integer, Game> games = new TreeMap<>();
+    private int teamAGames;
+    private int teamBGames;
+    private String winner;
+    private LocalDateTime lastUpdated;
+
+    @Data
+    @NoArgsConstructor
+    public static class Game {
+        private int teamAScore;
+        private int teamBScore;
+        private String winner;
+        private LocalDateTime updatedAt;
+    }
+
+    public MatchAggregate apply(MatchResult result) {
+        try {
+            new MatchScores(result.getGameNumber(), result.getTeamAScore(), result.getTeamBScore(), null);
+        } catch (IllegalArgumentException e) {
+            return this;
+        }
+        if (id == null) {
+            id = result.getId();
+        }
+        if (result.getTeamA() != null) {
+            teamA = result.getTeamA();
+        }
+        if (result.getTeamB() != null) {
+            teamB = result.getTeamB();
+        }
+
+        Game game = games.computeIfAbsent(result.getGameNumber(), n -> new Game());
+        LocalDateTime at = result.getMatchDateTime();
+        if (game.updatedAt != null && at != null && at.isBefore(game.updatedAt)) {
+            return this; // Stale update, e.g. update-score overtaken by thomas-cup-matches
+        }
+        game.teamAScore = result.getTeamAScore();
+        game.teamBScore = result.getTeamBScore();
+        game.updatedAt = at != null ? at : game.updatedAt;
+        if (at != null && (lastUpdated == null || at.isAfter(lastUpdated))) {
+            lastUpdated = at;
+        }
+        recount();
+        return this;
+    }
+
+    private void recount() {
+        teamAGames = 0;
+        teamBGames = 0;
+        for (Map.Entry<Integer, Game> entry : games.entrySet()) {
+            Game game = entry.getValue();
+            game.winner = null;
+            if (MatchScores.isGameOver(entry.getKey(), game.teamAScore, game.teamBScore)) {
+                if (game.teamAScore > game.teamBScore) {
+                    game.winner = teamA;
+                    teamAGames++;
+                } else {
+                    game.winner = teamB;
+                    teamBGames++;
+                }
+            }
+        }
+        winner = teamAGames >= 2 ? teamA : teamBGames >= 2 ? teamB : null;
+    }
+}
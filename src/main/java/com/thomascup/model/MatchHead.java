@@ -20,6 +20,8 @@ public class MatchHead {
 
     // Explicit getters
     public String getId() { return id; }
+    public String getTeamA() { return teamA; }
+    public String getTeamB() { return teamB; }
     public LocalDateTime getMatchDateTime() { return matchDateTime; }
     public List<MatchScores> getScores() { return scores; }
 }
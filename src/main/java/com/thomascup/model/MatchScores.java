@@ -32,6 +32,16 @@ public class MatchScores {
         this.gameNumber = gameNumber;
     }
 
+    /**
+     * A game ends when one side reaches 21 (15 in game 3) with a two point lead, or 30.
+     */
+    public static boolean isGameOver(int gameNumber, int teamAScore, int teamBScore) {
+        int maxPoints = (gameNumber == 3) ? 15 : 21;
+        int cap = 30;
+        if (teamAScore >= cap || teamBScore >= cap) return true;
+        return (teamAScore >= maxPoints || teamBScore >= maxPoints) && Math.abs(teamAScore - teamBScore) >= 2;
+    }
+
     private void validateScore(int gameNumber, int teamAScore, int teamBScore) {
         if (!(gameNumber > 0 && gameNumber < 4)) {
             throw new IllegalArgumentException("Game number must be 1, 2, or 3 (badminton match is best of 3 games) but is " + gameNumber);
@@ -0,0 +1,561 @@
+package com.thomascup.repository;
+
+import com.thomascup.model.TrackingEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, memory-mapped log of accepted {@link TrackingEvent}s.
+ * <p>
+ * Events are written as {@code [length][crc32c][payload]} records into fixed-size preallocated
+ * segments ({@code events-<n>.log}); a zero length marks the end of the written data. A single
+ * flusher thread forces dirty segments every {@code fsync-interval}, so concurrent writers share
+ * one fsync (group commit) and {@link #awaitDurable} returns once a record is on disk. If a
+ * force fails, waiters get the failure instead of blocking; the next successful flush covers
+ * their records again.
+ * <p>
+ * Every {@code snapshot-every} events the full repository state is written to
+ * {@code snapshot-<n>.bin} together with the log position it covers, and older segments are
+ * deleted, so recovery loads the newest snapshot and replays only the log after it. A torn or
+ * corrupt record ends recovery; the space after it is zeroed so later appends start clean.
+ */
+@Component
+@ConditionalOnProperty(name = "thomascup.events.log.enabled", havingValue = "true")
+public class EventLog implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(EventLog.class);
+
+    private static final String SEGMENT_PREFIX = "events-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final int SNAPSHOT_MAGIC = 0x54435331; // "TCS1"
+    private static final int SNAPSHOT_END = 0x454E4421; // "END!"
+    private static final int RECORD_HEADER = 8;
+
+    /** Log position just after the last record covered by a snapshot. */
+    public record Position(long segment, int offset) {
+    }
+
+    /** Repository state captured at {@code position}, one list per trackingId in save order. */
+    public record Snapshot(Position position, List<List<TrackingEvent>> histories) {
+    }
+
+    private record FlushFailure(long target, RuntimeException cause) {
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long fsyncIntervalMicros;
+    private final long snapshotEvery;
+
+    // Guarded by this
+    private MappedByteBuffer current;
+    private long currentSegment;
+    private final List<MappedByteBuffer> rolled = new ArrayList<>();
+    private long appended;
+    private long sinceSnapshot;
+
+    private final Object durableMonitor = new Object();
+    private volatile long durable;
+    // Latest failed flush and the sequence it tried to cover; cleared by the next successful one
+    private volatile FlushFailure flushFailure;
+    private volatile boolean closed;
+    private final AtomicBoolean snapshotRunning = new AtomicBoolean();
+    private ScheduledExecutorService flusher;
+    private ScheduledExecutorService snapshotter;
+
+    @Autowired
+    public EventLog(@Value("${thomascup.events.log.directory:data/event-log}") String directory,
+                    @Value("${thomascup.events.log.segment-size-bytes:67108864}") int segmentSize,
+                    @Value("${thomascup.events.log.fsync-interval:PT0.002S}") Duration fsyncInterval,
+                    @Value("${thomascup.events.log.snapshot-every:1000000}") long snapshotEvery) {
+        this(Paths.get(directory), segmentSize, fsyncInterval, snapshotEvery);
+    }
+
+    EventLog(Path directory, int segmentSize, Duration fsyncInterval, long snapshotEvery) {
+        if (segmentSize < 4096) {
+            throw new IllegalArgumentException("segmentSize must be at least 4096 bytes: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncIntervalMicros = Math.max(1, fsyncInterval.toNanos() / 1000);
+        this.snapshotEvery = snapshotEvery;
+    }
+
+    /**
+     * Loads the newest valid snapshot, replays the log after it into {@code sink} and opens the
+     * log for appending. Must be called once, before the first {@link #append}.
+     *
+     * @return the number of events handed to {@code sink}
+     */
+    public synchronized long recover(Consumer<TrackingEvent> sink) {
+        if (current != null) {
+            throw new IllegalStateException("Event log already recovered");
+        }
+        try {
+            Files.createDirectories(directory);
+            long recovered = 0;
+            Position start = new Position(0, 0);
+            for (Path snapshot : list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX, true)) {
+                List<TrackingEvent> events = new ArrayList<>();
+                Position position = readSnapshot(snapshot, events::add);
+                if (position != null) {
+                    events.forEach(sink);
+                    recovered += events.size();
+                    start = position;
+                    break;
+                }
+                logger.warn("Ignoring incomplete or corrupt snapshot {}", snapshot);
+            }
+
+            long[] replayed = new long[1];
+            Consumer<TrackingEvent> counting = event -> {
+                replayed[0]++;
+                sink.accept(event);
+            };
+            long segment = start.segment();
+            int offset = start.offset();
+            MappedByteBuffer buffer = map(segment);
+            List<Path> segments = list(SEGMENT_PREFIX, SEGMENT_SUFFIX, false);
+            for (Path path : segments) {
+                long index = indexOf(path, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+                if (index < start.segment()) {
+                    continue;
+                }
+                if (index != segment) {
+                    segment = index;
+                    offset = 0;
+                    buffer = map(segment);
+                }
+                int end = scan(buffer, offset, counting);
+                if (end < 0) {
+                    // Torn write: keep the valid prefix, drop everything after it
+                    end = -end - 1;
+                    zero(buffer, end);
+                    buffer.force();
+                    for (Path later : segments) {
+                        if (indexOf(later, SEGMENT_PREFIX, SEGMENT_SUFFIX) > segment) {
+                            Files.deleteIfExists(later);
+                        }
+                    }
+                    logger.warn("Event log segment {} is corrupt at offset {}; truncated there", path, end);
+                    offset = end;
+                    break;
+                }
+                offset = end;
+            }
+
+            recovered += replayed[0];
+            current = buffer;
+            currentSegment = segment;
+            current.position(offset);
+            logger.info("Recovered {} tracking events from {} (snapshot at segment {} offset {})",
+                    recovered, directory, start.segment(), start.offset());
+
+            flusher = Executors.newSingleThreadScheduledExecutor(daemon("event-log-flusher"));
+            flusher.scheduleWithFixedDelay(this::flush, fsyncIntervalMicros, fsyncIntervalMicros, TimeUnit.MICROSECONDS);
+            snapshotter = Executors.newSingleThreadScheduledExecutor(daemon("event-log-snapshot"));
+            return recovered;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to recover event log from " + directory, e);
+        }
+    }
+
+    /**
+     * Appends {@code event} to the mapped segment; it is durable once {@link #awaitDurable} with
+     * the returned sequence returns.
+     */
+    public long append(TrackingEvent event) {
+        byte[] payload = encode(event);
+        int crc = crc(payload, 0, payload.length);
+        if (RECORD_HEADER + payload.length + 4 > segmentSize) {
+            throw new IllegalArgumentException("Tracking event too large for a log segment: " + payload.length + " bytes");
+        }
+        synchronized (this) {
+            if (current == null || closed) {
+                throw new IllegalStateException("Event log is not open");
+            }
+            // Keep 4 zero bytes after every record so a reader always finds the end marker
+            if (current.remaining() < RECORD_HEADER + payload.length + 4) {
+                roll();
+            }
+            current.putInt(payload.length).putInt(crc).put(payload);
+            sinceSnapshot++;
+            return ++appended;
+        }
+    }
+
+    /**
+     * Blocks until the group fsync has covered {@code sequence}.
+     *
+     * @throws UncheckedIOException if the flush that should have covered {@code sequence} failed
+     */
+    public void awaitDurable(long sequence) {
+        if (durable >= sequence) {
+            return;
+        }
+        synchronized (durableMonitor) {
+            while (durable < sequence) {
+                FlushFailure failure = flushFailure;
+                if (failure != null && failure.target() >= sequence) {
+                    throw new UncheckedIOException("Failed to flush event log",
+                            failure.cause() instanceof UncheckedIOException e ? e.getCause() : new IOException(failure.cause()));
+                }
+                if (closed) {
+                    throw new IllegalStateException("Event log closed before event was flushed");
+                }
+                try {
+                    durableMonitor.wait(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted waiting for event log flush", e);
+                }
+            }
+        }
+    }
+
+    public synchronized Position position() {
+        return new Position(currentSegment, current.position());
+    }
+
+    /**
+     * Starts a snapshot in the background when enough events were appended since the last one.
+     * {@code capture} runs on the snapshot thread and must return state consistent with its
+     * position, i.e. with appends blocked while it copies.
+     */
+    public void snapshotIfDue(Supplier<Snapshot> capture) {
+        synchronized (this) {
+            if (sinceSnapshot < snapshotEvery || closed) {
+                return;
+            }
+        }
+        if (!snapshotRunning.compareAndSet(false, true)) {
+            return;
+        }
+        snapshotter.execute(() -> {
+            try {
+                Snapshot snapshot = capture.get();
+                synchronized (this) {
+                    sinceSnapshot = 0;
+                }
+                writeSnapshot(snapshot);
+            } catch (RuntimeException e) {
+                logger.error("Failed to write event log snapshot", e);
+            } finally {
+                snapshotRunning.set(false);
+            }
+        });
+    }
+
+    void writeSnapshot(Snapshot snapshot) {
+        Position position = snapshot.position();
+        Path target = directory.resolve(name(SNAPSHOT_PREFIX, position.segment(), SNAPSHOT_SUFFIX));
+        Path tmp = directory.resolve(target.getFileName() + ".tmp");
+        long start = System.nanoTime();
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream channelStream = Channels.newOutputStream(channel);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(channelStream, 1 << 16));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(position.segment());
+            out.writeInt(position.offset());
+            for (List<TrackingEvent> history : snapshot.histories()) {
+                for (TrackingEvent event : history) {
+                    byte[] payload = encode(event);
+                    out.writeInt(payload.length);
+                    out.writeInt(crc(payload, 0, payload.length));
+                    out.write(payload);
+                    count++;
+                }
+            }
+            out.writeInt(0);
+            out.writeInt(SNAPSHOT_END);
+            out.writeLong(count);
+            out.flush();
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write snapshot " + target, e);
+        }
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            // Everything before the snapshot position is now redundant
+            for (Path old : list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX, false)) {
+                if (!old.equals(target)) {
+                    Files.deleteIfExists(old);
+                }
+            }
+            for (Path segment : list(SEGMENT_PREFIX, SEGMENT_SUFFIX, false)) {
+                if (indexOf(segment, SEGMENT_PREFIX, SEGMENT_SUFFIX) < position.segment()) {
+                    Files.deleteIfExists(segment);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to install snapshot " + target, e);
+        }
+        logger.info("Wrote event log snapshot of {} events at segment {} offset {} in {} ms",
+                count, position.segment(), position.offset(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        if (snapshotter != null) {
+            snapshotter.shutdown();
+            awaitTermination(snapshotter);
+        }
+        if (flusher != null) {
+            flusher.shutdown();
+            awaitTermination(flusher);
+            flush();
+        }
+        closed = true;
+        synchronized (durableMonitor) {
+            durableMonitor.notifyAll();
+        }
+    }
+
+    private void flush() {
+        long target;
+        MappedByteBuffer toForce;
+        List<MappedByteBuffer> full;
+        synchronized (this) {
+            if (current == null || appended == durable) {
+                return;
+            }
+            target = appended;
+            toForce = current;
+            full = new ArrayList<>(rolled);
+            rolled.clear();
+        }
+        try {
+            for (MappedByteBuffer buffer : full) {
+                force(buffer);
+            }
+            force(toForce);
+        } catch (RuntimeException e) {
+            logger.error("Failed to force event log segment", e);
+            synchronized (this) {
+                // Retry the rolled segments with the next flush
+                rolled.addAll(0, full);
+            }
+            synchronized (durableMonitor) {
+                flushFailure = new FlushFailure(target, e);
+                durableMonitor.notifyAll();
+            }
+            return;
+        }
+        synchronized (durableMonitor) {
+            durable = target;
+            flushFailure = null;
+            durableMonitor.notifyAll();
+        }
+    }
+
+    // Overridden in tests to simulate a failing disk
+    void force(MappedByteBuffer buffer) {
+        buffer.force();
+    }
+
+    // Guarded by this
+    private void roll() {
+        rolled.add(current);
+        currentSegment++;
+        try {
+            current = map(currentSegment);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create event log segment " + currentSegment, e);
+        }
+    }
+
+    private MappedByteBuffer map(long segment) throws IOException {
+        Path path = directory.resolve(name(SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Mapping beyond the end grows the file; the mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    /**
+     * @return the offset after the last valid record, or {@code -(offset + 1)} of a corrupt one
+     */
+    private int scan(MappedByteBuffer buffer, int offset, Consumer<TrackingEvent> sink) {
+        ByteBuffer view = buffer.duplicate();
+        int position = offset;
+        while (position + RECORD_HEADER <= segmentSize) {
+            int length = view.getInt(position);
+            if (length == 0) {
+                return position;
+            }
+            if (length < 0 || position + RECORD_HEADER + length > segmentSize) {
+                return -position - 1;
+            }
+            int crc = view.getInt(position + 4);
+            byte[] payload = new byte[length];
+            view.get(position + RECORD_HEADER, payload);
+            if (crc(payload, 0, length) != crc) {
+                return -position - 1;
+            }
+            sink.accept(decode(ByteBuffer.wrap(payload)));
+            position += RECORD_HEADER + length;
+        }
+        return position;
+    }
+
+    private Position readSnapshot(Path path, Consumer<TrackingEvent> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < 16) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != SNAPSHOT_MAGIC) {
+                return null;
+            }
+            Position position = new Position(buffer.getLong(), buffer.getInt());
+            long count = 0;
+            while (buffer.remaining() >= RECORD_HEADER) {
+                int length = buffer.getInt();
+                if (length == 0) {
+                    boolean complete = buffer.remaining() >= 12 && buffer.getInt() == SNAPSHOT_END && buffer.getLong() == count;
+                    return complete ? position : null;
+                }
+                int crc = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    return null;
+                }
+                byte[] payload = new byte[length];
+                buffer.get(payload);
+                if (crc(payload, 0, length) != crc) {
+                    return null;
+                }
+                sink.accept(decode(ByteBuffer.wrap(payload)));
+                count++;
+            }
+            return null;
+        }
+    }
+
+    static byte[] encode(TrackingEvent event) {
+        byte[] trackingId = event.trackingId().getBytes(StandardCharsets.UTF_8);
+        byte[] status = event.status() != null ? event.status().getBytes(StandardCharsets.UTF_8) : null;
+        Instant timestamp = event.timestamp();
+        ByteBuffer buffer = ByteBuffer.allocate(4 + trackingId.length + 4 + (status != null ? status.length : 0) + 1 + 12);
+        buffer.putInt(trackingId.length).put(trackingId);
+        if (status != null) {
+            buffer.putInt(status.length).put(status);
+        } else {
+            buffer.putInt(-1);
+        }
+        if (timestamp != null) {
+            buffer.put((byte) 1).putLong(timestamp.getEpochSecond()).putInt(timestamp.getNano());
+        } else {
+            buffer.put((byte) 0);
+        }
+        return buffer.position() == buffer.capacity() ? buffer.array() : Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    static TrackingEvent decode(ByteBuffer buffer) {
+        String trackingId = readString(buffer);
+        String status = readString(buffer);
+        Instant timestamp = buffer.get() == 1 ? Instant.ofEpochSecond(buffer.getLong(), buffer.getInt()) : null;
+        return new TrackingEvent(trackingId, status, timestamp);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static int crc(byte[] data, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(data, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private static void zero(MappedByteBuffer buffer, int from) {
+        byte[] zeros = new byte[8192];
+        ByteBuffer view = buffer.duplicate();
+        view.position(from);
+        while (view.hasRemaining()) {
+            view.put(zeros, 0, Math.min(zeros.length, view.remaining()));
+        }
+    }
+
+    private List<Path> list(String prefix, String suffix, boolean newestFirst) throws IOException {
+        Comparator<Path> byIndex = Comparator.comparingLong(path -> indexOf(path, prefix, suffix));
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(prefix) && name.endsWith(suffix);
+                    })
+                    .sorted(newestFirst ? byIndex.reversed() : byIndex)
+                    .toList();
+        }
+    }
+
+    private static long indexOf(Path path, String prefix, String suffix) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    private static String name(String prefix, long index, String suffix) {
+        return String.format("%s%020d%s", prefix, index, suffix);
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static void awaitTermination(ScheduledExecutorService executor) {
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,34 +1,381 @@
 package com.thomascup.repository;
 
+import com.thomascup.model.EventPage;
 import com.thomascup.model.TrackingEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.NavigableSet;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
 
+/**
+ * In-memory tracking events per trackingId.
+ * <p>
+ * Each trackingId has an insertion-ordered hash of its events, so a duplicate is found in
+ * constant time and check-and-insert runs atomically inside {@link ConcurrentHashMap#compute}.
+ * Memory is bounded two ways: a trackingId keeps at most {@code maxEventsPerId} events (the
+ * oldest are dropped, and are then no longer recognised as duplicates), and trackingIds without
+ * a new event for {@code ttl} are evicted by a sweep piggybacked on writes.
+ * <p>
+ * Events are also indexed by timestamp per trackingId: the latest status is a field read and
+ * range queries walk a skip list from the lower bound, O(log n) plus the page size.
+ * <p>
+ * With an {@link EventLog} every newly accepted event is appended to it (in save order per
+ * trackingId) before it is stored, {@link #saveEvent} returns once the group fsync covered it if
+ * {@code thomascup.events.log.sync-writes} is set, and the state is rebuilt from the log on
+ * startup. Each stored event keeps its log sequence, so saving a duplicate waits for the same
+ * flush as the original. Recovered trackingIds start a fresh TTL.
+ */
 @Repository
 public class EventRepository {
-    private final ConcurrentHashMap<String, CopyOnWriteArrayList<TrackingEvent>> events = new ConcurrentHashMap<>();
+    private static final int DEFAULT_MAX_EVENTS_PER_ID = 1000;
+    private static final Duration DEFAULT_TTL = Duration.ofHours(24);
 
+    private final ConcurrentHashMap<String, EventHistory> events = new ConcurrentHashMap<>();
+    private final int maxEventsPerId;
+    private final long ttlNanos;
+    private final long sweepIntervalNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicLong nextSweep;
+    private final EventLog eventLog;
+    private final boolean syncWrites;
+    // Saves share the read lock; a snapshot takes the write lock to copy state at a log position
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+
+    public EventRepository() {
+        this(DEFAULT_MAX_EVENTS_PER_ID, DEFAULT_TTL);
+    }
+
+    public EventRepository(int maxEventsPerId, Duration ttl) {
+        this(maxEventsPerId, ttl, System::nanoTime, null, false);
+    }
+
+    @Autowired
+    public EventRepository(@Value("${thomascup.events.max-per-id:1000}") int maxEventsPerId,
+                           @Value("${thomascup.events.ttl:PT24H}") Duration ttl,
+                           ObjectProvider<EventLog> eventLog,
+                           @Value("${thomascup.events.log.sync-writes:true}") boolean syncWrites) {
+        this(maxEventsPerId, ttl, System::nanoTime, eventLog.getIfAvailable(), syncWrites);
+    }
+
+    EventRepository(int maxEventsPerId, Duration ttl, LongSupplier nanoClock) {
+        this(maxEventsPerId, ttl, nanoClock, null, false);
+    }
+
+    EventRepository(int maxEventsPerId, Duration ttl, LongSupplier nanoClock, EventLog eventLog, boolean syncWrites) {
+        if (maxEventsPerId < 1) {
+            throw new IllegalArgumentException("maxEventsPerId must be at least 1: " + maxEventsPerId);
+        }
+        this.maxEventsPerId = maxEventsPerId;
+        this.ttlNanos = ttl.toNanos();
+        this.sweepIntervalNanos = Math.max(ttlNanos / 10, Duration.ofSeconds(1).toNanos());
+        this.nanoClock = nanoClock;
+        this.nextSweep = new AtomicLong(nanoClock.getAsLong() + sweepIntervalNanos);
+        this.eventLog = eventLog;
+        this.syncWrites = syncWrites;
+    }
+
+    @PostConstruct
+    public void recover() {
+        if (eventLog != null) {
+            long now = nanoClock.getAsLong();
+            eventLog.recover(event -> events.computeIfAbsent(event.trackingId(), id -> new EventHistory())
+                    .addIfAbsent(event, now, maxEventsPerId));
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (eventLog != null) {
+            eventLog.close();
+        }
+    }
+
+    /**
+     * @return the stored event: {@code event} itself, or the equal event saved before it
+     */
     public TrackingEvent saveEvent(TrackingEvent event) {
-        if (events.containsKey(event.trackingId())) {
-            var existingEvents = events.get(event.trackingId());
-            for (TrackingEvent existingEvent : existingEvents) {
-                if (Objects.equals(existingEvent, event)) {
-                    // Duplicate event found, do not add
-                    return existingEvent;
+        if (eventLog == null) {
+            return save(event, nanoClock.getAsLong());
+        }
+        long[] sequence = new long[1];
+        TrackingEvent saved;
+        snapshotLock.readLock().lock();
+        try {
+            saved = save(event, nanoClock.getAsLong(), sequence);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        if (sequence[0] > 0) {
+            if (syncWrites) {
+                eventLog.awaitDurable(sequence[0]);
+            }
+            eventLog.snapshotIfDue(this::captureSnapshot);
+        }
+        return saved;
+    }
+
+    private TrackingEvent save(TrackingEvent event, long now) {
+        return save(event, now, null);
+    }
+
+    private TrackingEvent save(TrackingEvent event, long now, long[] logSequence) {
+        TrackingEvent[] saved = new TrackingEvent[1];
+        events.compute(event.trackingId(), (trackingId, history) -> {
+            if (history == null || history.isExpired(now, ttlNanos)) {
+                history = new EventHistory();
+            }
+            Stored existing = history.find(event);
+            if (existing != null) {
+                saved[0] = existing.key().event();
+                if (logSequence != null) {
+                    // A retry after a failed flush must not succeed before the event is on disk
+                    logSequence[0] = existing.logSequence();
                 }
+                return history;
+            }
+            long sequence = 0;
+            if (logSequence != null) {
+                // Appended under the bin lock so the log keeps the save order of each trackingId,
+                // and before storing so an event that failed to append is not deduplicated later
+                sequence = eventLog.append(event);
+                logSequence[0] = sequence;
             }
+            history.add(event, now, maxEventsPerId, sequence);
+            saved[0] = event;
+            return history;
+        });
+        sweepIfDue(now);
+        return saved[0];
+    }
+
+    private EventLog.Snapshot captureSnapshot() {
+        snapshotLock.writeLock().lock();
+        try {
+            List<List<TrackingEvent>> histories = new ArrayList<>(events.size());
+            for (EventHistory history : events.values()) {
+                histories.add(history.snapshot());
+            }
+            return new EventLog.Snapshot(eventLog.position(), histories);
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the stored event equal to {@code event}, if it was saved before and not expired or
+     * dropped since
+     */
+    public Optional<TrackingEvent> findSaved(TrackingEvent event) {
+        EventHistory history = events.get(event.trackingId());
+        if (history == null || history.isExpired(nanoClock.getAsLong(), ttlNanos)) {
+            return Optional.empty();
         }
-        events.computeIfAbsent(event.trackingId(),
-                        id -> new CopyOnWriteArrayList<>())
-                .add(event);
-        return event;
+        Stored stored = history.find(event);
+        return Optional.ofNullable(stored != null ? stored.key().event() : null);
     }
 
+    /**
+     * @return a snapshot of the events of {@code trackingId} in the order they were saved
+     */
     public List<TrackingEvent> getEvents(String trackingId) {
-        return events.getOrDefault(trackingId, new CopyOnWriteArrayList<>());
+        EventHistory history = events.get(trackingId);
+        if (history == null || history.isExpired(nanoClock.getAsLong(), ttlNanos)) {
+            return List.of();
+        }
+        return history.snapshot();
+    }
+
+    public Optional<TrackingEvent> getLatest(String trackingId) {
+        EventHistory history = events.get(trackingId);
+        if (history == null || history.isExpired(nanoClock.getAsLong(), ttlNanos)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(history.latest());
+    }
+
+    /**
+     * Events of {@code trackingId} with {@code from <= timestamp < to} in timestamp order, at most
+     * {@code limit} per page. Pass the returned {@link EventPage#nextCursor()} to continue after
+     * the last event of a page. An empty range ({@code from} after {@code to}) gives an empty page.
+     *
+     * @throws IllegalArgumentException if {@code cursor} was not issued by this method
+     */
+    public EventPage getEvents(String trackingId, Instant from, Instant to, int limit, String cursor) {
+        TimeKey after = cursor != null && !cursor.isBlank() ? TimeKey.fromCursor(cursor) : null;
+        EventHistory history = events.get(trackingId);
+        if (history == null || history.isExpired(nanoClock.getAsLong(), ttlNanos)) {
+            return new EventPage(List.of(), null);
+        }
+        return history.range(from, to, limit, after);
+    }
+
+    int trackingIdCount() {
+        return events.size();
+    }
+
+    private void sweepIfDue(long now) {
+        long due = nextSweep.get();
+        if (now - due < 0 || !nextSweep.compareAndSet(due, now + sweepIntervalNanos)) {
+            return;
+        }
+        for (String trackingId : events.keySet()) {
+            // Re-checked under the bin lock so a concurrent save is never dropped
+            events.computeIfPresent(trackingId, (id, history) -> history.isExpired(now, ttlNanos) ? null : history);
+        }
+    }
+
+    /**
+     * Position of an event in the time index: timestamp first, save order among equal timestamps.
+     */
+    private record TimeKey(Instant timestamp, long sequence, TrackingEvent event) implements Comparable<TimeKey> {
+        static TimeKey of(TrackingEvent event, long sequence) {
+            return new TimeKey(event.timestamp() != null ? event.timestamp() : Instant.MIN, sequence, event);
+        }
+
+        static TimeKey bound(Instant timestamp) {
+            return new TimeKey(timestamp, Long.MIN_VALUE, null);
+        }
+
+        @Override
+        public int compareTo(TimeKey other) {
+            int byTime = timestamp.compareTo(other.timestamp);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+
+        String toCursor() {
+            String raw = timestamp.getEpochSecond() + "." + timestamp.getNano() + "." + sequence;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        static TimeKey fromCursor(String cursor) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII).split("\\.");
+                if (parts.length != 3) {
+                    throw new IllegalArgumentException("Invalid cursor");
+                }
+                return new TimeKey(Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1])), Long.parseLong(parts[2]), null);
+            } catch (IllegalArgumentException | DateTimeException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
+    }
+
+    /**
+     * A stored event with the log sequence it was appended at (0 if not logged in this run).
+     */
+    private record Stored(TimeKey key, long logSequence) {
+    }
+
+    private static final class EventHistory {
+        // Save order, for dedup by hash and for dropping the oldest events
+        private final LinkedHashMap<TrackingEvent, Stored> bySave = new LinkedHashMap<>();
+        // Timestamp order; a concurrent set so range reads need no lock
+        private final ConcurrentSkipListSet<TimeKey> byTime = new ConcurrentSkipListSet<>();
+        private volatile TimeKey latest;
+        private long sequence;
+        private volatile long lastWrite;
+
+        /**
+         * @return the equal event already stored, or {@code null} if {@code event} was added
+         */
+        synchronized TrackingEvent addIfAbsent(TrackingEvent event, long now, int maxEvents) {
+            Stored existing = bySave.get(event);
+            if (existing != null) {
+                return existing.key().event();
+            }
+            add(event, now, maxEvents, 0);
+            return null;
+        }
+
+        synchronized Stored find(TrackingEvent event) {
+            return bySave.get(event);
+        }
+
+        /**
+         * Adds {@code event}, which must not be stored yet.
+         */
+        synchronized void add(TrackingEvent event, long now, int maxEvents, long logSequence) {
+            TimeKey key = TimeKey.of(event, sequence++);
+            bySave.put(event, new Stored(key, logSequence));
+            byTime.add(key);
+            if (latest == null || key.compareTo(latest) > 0) {
+                latest = key;
+            }
+            lastWrite = now;
+            if (bySave.size() > maxEvents) {
+                Iterator<Stored> oldest = bySave.values().iterator();
+                TimeKey dropped = oldest.next().key();
+                oldest.remove();
+                byTime.remove(dropped);
+                if (dropped == latest) {
+                    latest = byTime.isEmpty() ? null : byTime.last();
+                }
+            }
+        }
+
+        synchronized List<TrackingEvent> snapshot() {
+            List<TrackingEvent> events = new ArrayList<>(bySave.size());
+            for (Stored stored : bySave.values()) {
+                events.add(stored.key().event());
+            }
+            return events;
+        }
+
+        TrackingEvent latest() {
+            TimeKey key = latest;
+            return key != null ? key.event() : null;
+        }
+
+        EventPage range(Instant from, Instant to, int limit, TimeKey after) {
+            NavigableSet<TimeKey> view = byTime;
+            TimeKey lower = from != null ? TimeKey.bound(from) : null;
+            boolean fromCursor = after != null && (lower == null || after.compareTo(lower) >= 0);
+            TimeKey start = fromCursor ? after : lower;
+            TimeKey upper = to != null ? TimeKey.bound(to) : null;
+            if (start != null && upper != null && start.compareTo(upper) > 0) {
+                // from after to, or a cursor beyond to: nothing in range (and subSet would throw)
+                return new EventPage(List.of(), null);
+            }
+            if (start != null) {
+                view = view.tailSet(start, !fromCursor);
+            }
+            if (upper != null) {
+                view = view.headSet(upper, false);
+            }
+            List<TrackingEvent> page = new ArrayList<>(Math.min(limit, 64));
+            TimeKey last = null;
+            for (TimeKey key : view) {
+                if (page.size() == limit) {
+                    return new EventPage(page, last.toCursor());
+                }
+                page.add(key.event());
+                last = key;
+            }
+            return new EventPage(page, null);
+        }
+
+        boolean isExpired(long now, long ttlNanos) {
+            return now - lastWrite > ttlNanos;
+        }
     }
 }
@@ -0,0 +1,40 @@
+package com.thomascup.serialization;
+
+import avro.thomasCup.match.MatchResultHead;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process stand-in for a schema registry.
+ * <p>
+ * Schemas are identified by their 64-bit parsing fingerprint, which producers put in a record
+ * header instead of shipping the schema. Every instance pre-registers the schemas compiled into
+ * this build, so any replica running the same (or an older, still registered) version can
+ * resolve the writer schema of a record without a network round trip.
+ */
+public class AvroSchemaRegistry {
+    public static final String FINGERPRINT_HEADER = "avro.schema.fingerprint";
+
+    private final Map<Long, Schema> schemas = new ConcurrentHashMap<>();
+
+    public AvroSchemaRegistry() {
+        register(MatchResultHead.getClassSchema());
+    }
+
+    public long register(Schema schema) {
+        long fingerprint = SchemaNormalization.parsingFingerprint64(schema);
+        schemas.putIfAbsent(fingerprint, schema);
+        return fingerprint;
+    }
+
+    public Schema lookup(long fingerprint) {
+        Schema schema = schemas.get(fingerprint);
+        if (schema == null) {
+            throw new IllegalStateException("Unknown Avro schema fingerprint " + Long.toHexString(fingerprint));
+        }
+        return schema;
+    }
+}
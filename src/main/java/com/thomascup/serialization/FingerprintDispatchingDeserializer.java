@@ -0,0 +1,45 @@
+package com.thomascup.serialization;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.Map;
+
+/**
+ * Reads values of topics that may carry either format: records with the
+ * {@value AvroSchemaRegistry#FINGERPRINT_HEADER} header go to the Avro deserializer, all others
+ * to the fallback (JSON).
+ */
+public class FingerprintDispatchingDeserializer implements Deserializer<Object> {
+    private final Deserializer<?> avro;
+    private final Deserializer<?> fallback;
+
+    public FingerprintDispatchingDeserializer(Deserializer<?> avro, Deserializer<?> fallback) {
+        this.avro = avro;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        fallback.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (headers != null && headers.lastHeader(AvroSchemaRegistry.FINGERPRINT_HEADER) != null) {
+            return avro.deserialize(topic, headers, data);
+        }
+        return fallback.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return fallback.deserialize(topic, data);
+    }
+
+    @Override
+    public void close() {
+        avro.close();
+        fallback.close();
+    }
+}
@@ -0,0 +1,97 @@
+package com.thomascup.serialization;
+
+import avro.thomasCup.match.MatchResultHead;
+import com.thomascup.model.MatchHead;
+import com.thomascup.model.MatchScores;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads {@link MatchHead} written by {@link MatchHeadAvroSerializer}, resolving the writer schema
+ * from the fingerprint header so records written with an older schema version still decode.
+ */
+public class MatchHeadAvroDeserializer implements Deserializer<MatchHead> {
+    private final Schema schema = MatchResultHead.getClassSchema();
+    private final AvroSchemaRegistry registry;
+    private final Map<Long, GenericDatumReader<GenericRecord>> readers = new ConcurrentHashMap<>();
+
+    public MatchHeadAvroDeserializer(AvroSchemaRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public MatchHead deserialize(String topic, Headers headers, byte[] data) {
+        Header header = headers.lastHeader(AvroSchemaRegistry.FINGERPRINT_HEADER);
+        if (header == null) {
+            return deserialize(topic, data);
+        }
+        long fingerprint = ByteBuffer.wrap(header.value()).getLong();
+        GenericDatumReader<GenericRecord> reader = readers.computeIfAbsent(fingerprint,
+                f -> new GenericDatumReader<>(registry.lookup(f), schema));
+        return read(topic, reader, data);
+    }
+
+    @Override
+    public MatchHead deserialize(String topic, byte[] data) {
+        // No header: assume the record was written with the current schema
+        GenericDatumReader<GenericRecord> reader = readers.computeIfAbsent(registry.register(schema),
+                f -> new GenericDatumReader<>(schema, schema));
+        return read(topic, reader, data);
+    }
+
+    private MatchHead read(String topic, GenericDatumReader<GenericRecord> reader, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return toMatchHead(reader.read(null, DecoderFactory.get().binaryDecoder(data, null)));
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Failed to deserialize MatchHead from topic " + topic, e);
+        }
+    }
+
+    private static MatchHead toMatchHead(GenericRecord record) {
+        List<MatchScores> scores = new ArrayList<>();
+        for (Object element : (List<?>) record.get("scores")) {
+            GenericRecord score = (GenericRecord) element;
+            scores.add(new MatchScores(
+                    (Integer) score.get("gameNumber"),
+                    (Integer) score.get("teamAScore"),
+                    (Integer) score.get("teamBScore"),
+                    asString(score.get("winner"))));
+        }
+        return new MatchHead(
+                asString(record.get("id")),
+                asString(record.get("teamA")),
+                asString(record.get("teamB")),
+                asLocalDateTime(record.get("matchDateTime")),
+                scores);
+    }
+
+    private static LocalDateTime asLocalDateTime(Object value) {
+        if (value instanceof Long millis) {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+        }
+        return (LocalDateTime) value; // null, or already converted by a registered logical type conversion
+    }
+
+    private static String asString(Object value) {
+        return value != null ? value.toString() : null; // Avro strings decode as Utf8
+    }
+}
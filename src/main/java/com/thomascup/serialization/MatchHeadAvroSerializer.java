@@ -0,0 +1,85 @@
+package com.thomascup.serialization;
+
+import avro.thomasCup.match.MatchResultHead;
+import com.thomascup.model.MatchHead;
+import com.thomascup.model.MatchScores;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes {@link MatchHead} as Avro binary ({@code MatchResultHead} schema) with the schema
+ * fingerprint in the {@value AvroSchemaRegistry#FINGERPRINT_HEADER} header.
+ */
+public class MatchHeadAvroSerializer implements Serializer<MatchHead> {
+    private final Schema schema = MatchResultHead.getClassSchema();
+    private final Schema scoresSchema = schema.getField("scores").schema();
+    private final Schema scoreSchema = scoresSchema.getElementType();
+    private final GenericDatumWriter<GenericRecord> writer = new GenericDatumWriter<>(schema);
+    private final byte[] fingerprint;
+
+    public MatchHeadAvroSerializer(AvroSchemaRegistry registry) {
+        this.fingerprint = ByteBuffer.allocate(Long.BYTES).putLong(registry.register(schema)).array();
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, MatchHead data) {
+        if (data == null) {
+            return null;
+        }
+        headers.remove(AvroSchemaRegistry.FINGERPRINT_HEADER);
+        headers.add(AvroSchemaRegistry.FINGERPRINT_HEADER, fingerprint);
+        return serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, MatchHead data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+            BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+            writer.write(toRecord(data), encoder);
+            encoder.flush();
+            return out.toByteArray();
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Failed to serialize MatchHead " + data.getId() + " for topic " + topic, e);
+        }
+    }
+
+    private GenericRecord toRecord(MatchHead head) {
+        List<GenericRecord> scores = new ArrayList<>();
+        if (head.getScores() != null) {
+            for (MatchScores score : head.getScores()) {
+                GenericRecord scoreRecord = new GenericData.Record(scoreSchema);
+                scoreRecord.put("gameNumber", score.getGameNumber());
+                scoreRecord.put("teamAScore", score.getTeamAScore());
+                scoreRecord.put("teamBScore", score.getTeamBScore());
+                scoreRecord.put("winner", score.getWinner());
+                scores.add(scoreRecord);
+            }
+        }
+        GenericRecord record = new GenericData.Record(schema);
+        record.put("id", head.getId());
+        record.put("teamA", head.getTeamA());
+        record.put("teamB", head.getTeamB());
+        record.put("matchDateTime", head.getMatchDateTime() != null
+                ? head.getMatchDateTime().toInstant(ZoneOffset.UTC).toEpochMilli() : null);
+        record.put("scores", new GenericData.Array<>(scoresSchema, scores));
+        return record;
+    }
+}
@@ -0,0 +1,138 @@
+package com.thomascup.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thomascup.model.BulkIngestResult;
+import com.thomascup.model.MatchResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Streams match results out of an NDJSON body (or a single JSON array) and pipelines them to
+ * Kafka: each value is parsed, validated and sent as soon as it is read, with at most
+ * {@code max-pending} sends outstanding, so the body is never held in memory as a whole.
+ * Invalid values are rejected individually; malformed JSON stops the stream at that point.
+ */
+@Service
+public class BulkMatchResultIngester {
+    private static final Logger logger = LoggerFactory.getLogger(BulkMatchResultIngester.class);
+    private static final int MAX_LISTED_REJECTIONS = 100;
+
+    public enum Target { MATCH_RESULTS, NEW_GAME, UPDATE_SCORE }
+
+    private final MatchResultIngestService ingestService;
+    private final ObjectMapper objectMapper;
+    private final int maxPending;
+    private final long drainTimeoutMs;
+
+    public BulkMatchResultIngester(MatchResultIngestService ingestService, ObjectMapper objectMapper,
+                                   @Value("${thomascup.api.bulk.max-pending:1000}") int maxPending,
+                                   @Value("${thomascup.api.bulk.drain-timeout-ms:120000}") long drainTimeoutMs) {
+        this.ingestService = ingestService;
+        this.objectMapper = objectMapper;
+        this.maxPending = maxPending;
+        this.drainTimeoutMs = drainTimeoutMs;
+    }
+
+    public BulkIngestResult ingest(InputStream body, Target target) throws IOException {
+        Function<MatchResult, CompletableFuture<SendResult<String, MatchResult>>> sender = switch (target) {
+            case MATCH_RESULTS -> ingestService::submitMatchResult;
+            case NEW_GAME -> ingestService::startNewGame;
+            case UPDATE_SCORE -> ingestService::updateScore;
+        };
+        Semaphore window = new Semaphore(maxPending);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<BulkIngestResult.Rejection> rejections = Collections.synchronizedList(new ArrayList<>());
+
+        int position = 0; // Values fully read so far
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+            while (token != null && token != JsonToken.END_ARRAY) {
+                JsonNode node = parser.readValueAsTree();
+                position++;
+                MatchResult matchResult;
+                try {
+                    matchResult = objectMapper.treeToValue(node, MatchResult.class);
+                    matchResult.validateGameNumber(matchResult.getGameNumber()).validate();
+                } catch (JsonProcessingException | IllegalArgumentException e) {
+                    reject(rejected, rejections, position, rootMessage(e));
+                    token = parser.nextToken();
+                    continue;
+                }
+
+                window.acquireUninterruptibly();
+                int sentPosition = position;
+                CompletableFuture<SendResult<String, MatchResult>> future;
+                try {
+                    future = sender.apply(matchResult);
+                } catch (RuntimeException e) {
+                    window.release();
+                    reject(rejected, rejections, sentPosition, rootMessage(e));
+                    token = parser.nextToken();
+                    continue;
+                }
+                future.whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        reject(rejected, rejections, sentPosition, "Kafka send failed: " + rootMessage(ex));
+                    } else {
+                        accepted.incrementAndGet();
+                    }
+                    window.release(); // Last, so the final drain sees every outcome
+                });
+                token = parser.nextToken();
+            }
+        } catch (JsonProcessingException e) {
+            logger.warn("Malformed bulk body after {} values: {}", position, e.getOriginalMessage());
+            reject(rejected, rejections, position + 1, "Malformed JSON, stopped reading: " + e.getOriginalMessage());
+        }
+
+        try {
+            if (!window.tryAcquire(maxPending, drainTimeoutMs, TimeUnit.MILLISECONDS)) {
+                logger.warn("Timed out waiting for {} pending bulk sends", maxPending - window.availablePermits());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (rejections) {
+            rejections.sort((a, b) -> Integer.compare(a.position(), b.position()));
+            return new BulkIngestResult(accepted.get(), rejected.get(), List.copyOf(rejections));
+        }
+    }
+
+    private static void reject(AtomicInteger rejected, List<BulkIngestResult.Rejection> rejections, int position, String error) {
+        rejected.incrementAndGet();
+        if (rejections.size() < MAX_LISTED_REJECTIONS) {
+            rejections.add(new BulkIngestResult.Rejection(position, error));
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+}
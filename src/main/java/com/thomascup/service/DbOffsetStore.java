@@ -0,0 +1,115 @@
+package com.thomascup.service;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consumer positions of the DB writers kept in {@code kafka_consumer_offsets} instead of Kafka
+ * ({@code thomascup.db-writer.offsets.store=database}).
+ * <p>
+ * The writers store the next offset per partition in the same JDBC transaction as the rows it
+ * covers and seek to it on assignment, so a row change and its position commit or roll back
+ * together: no re-applied work after a rebalance and no Kafka commit round trip per poll (the
+ * containers never commit). The update only moves a position forward from where the written
+ * records start, so a consumer that lost its partitions and still finishes an old poll fails and
+ * rolls back instead of overwriting the new owner's work.
+ */
+@Component
+@ConditionalOnProperty(name = "thomascup.db-writer.offsets.store", havingValue = "database")
+public class DbOffsetStore {
+    private static final Logger logger = LoggerFactory.getLogger(DbOffsetStore.class);
+
+    static final String SELECT_SQL = "SELECT topic, kafkaPartition, nextOffset FROM kafka_consumer_offsets WHERE groupId = ?";
+    static final String UPDATE_SQL = "UPDATE kafka_consumer_offsets SET nextOffset = ? " +
+            "WHERE groupId = ? AND topic = ? AND kafkaPartition = ? AND nextOffset <= ?";
+    static final String INSERT_SQL = "INSERT INTO kafka_consumer_offsets (groupId, topic, kafkaPartition, nextOffset) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public DbOffsetStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Plain JDBC transactions on the JdbcTemplate's DataSource: savepoints work regardless of
+        // the JPA transaction manager Boot registers
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+    }
+
+    /**
+     * Runs {@code work} in one JDBC transaction; {@link #save} must be called inside it.
+     */
+    public <T> T inTransaction(TransactionCallback<T> work) {
+        return transactionTemplate.execute(work);
+    }
+
+    /**
+     * Moves the stored position of every partition in {@code records} past its last record.
+     *
+     * @throws IllegalStateException if another consumer already stored a position beyond the first
+     *                               of these records
+     */
+    public void save(String groupId, List<? extends ConsumerRecord<?, ?>> records) {
+        Map<TopicPartition, long[]> ranges = new HashMap<>();
+        for (ConsumerRecord<?, ?> record : records) {
+            long[] range = ranges.computeIfAbsent(new TopicPartition(record.topic(), record.partition()),
+                    partition -> new long[] {record.offset(), record.offset()});
+            range[0] = Math.min(range[0], record.offset());
+            range[1] = Math.max(range[1], record.offset());
+        }
+        for (Map.Entry<TopicPartition, long[]> entry : ranges.entrySet()) {
+            TopicPartition partition = entry.getKey();
+            long first = entry.getValue()[0];
+            long next = entry.getValue()[1] + 1;
+            if (jdbcTemplate.update(UPDATE_SQL, next, groupId, partition.topic(), partition.partition(), first) > 0) {
+                continue;
+            }
+            try {
+                jdbcTemplate.update(INSERT_SQL, groupId, partition.topic(), partition.partition(), next);
+            } catch (DuplicateKeyException e) {
+                throw new IllegalStateException("Stored offset of " + partition + " for " + groupId +
+                        " is already past " + first + ": partition was reassigned", e);
+            }
+        }
+    }
+
+    /**
+     * @return stored next offsets of {@code groupId}; partitions never written are absent
+     */
+    public Map<TopicPartition, Long> load(String groupId) {
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        jdbcTemplate.query(SELECT_SQL, rs -> {
+            offsets.put(new TopicPartition(rs.getString("topic"), rs.getInt("kafkaPartition")), rs.getLong("nextOffset"));
+        }, groupId);
+        return offsets;
+    }
+
+    /**
+     * Seeks newly assigned partitions to their stored positions. Partitions without one keep the
+     * container's position (committed Kafka offset or auto.offset.reset), so switching an existing
+     * group to this store picks up where Kafka left it.
+     */
+    public void seek(String groupId, Collection<TopicPartition> assigned, ConsumerSeekCallback callback) {
+        Map<TopicPartition, Long> stored = load(groupId);
+        for (TopicPartition partition : assigned) {
+            Long offset = stored.get(partition);
+            if (offset != null) {
+                logger.info("Seeking {} of {} to stored offset {}", partition, groupId, offset);
+                callback.seek(partition.topic(), partition.partition(), offset);
+            }
+        }
+    }
+}
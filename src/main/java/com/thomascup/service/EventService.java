@@ -1,19 +1,66 @@
 package com.thomascup.service;
 
+import com.thomascup.model.EventPage;
 import com.thomascup.model.TrackingEvent;
 import com.thomascup.repository.EventRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+
 @Service
 public class EventService {
 
     private final EventRepository eventRepository;
+    private final TrackingEventPublisher eventPublisher;
 
     public EventService(EventRepository eventRepository) {
+        this(eventRepository, (TrackingEventPublisher) null);
+    }
+
+    @Autowired
+    public EventService(EventRepository eventRepository, ObjectProvider<TrackingEventPublisher> eventPublisher) {
+        this(eventRepository, eventPublisher.getIfAvailable());
+    }
+
+    EventService(EventRepository eventRepository, TrackingEventPublisher eventPublisher) {
         this.eventRepository = eventRepository;
+        this.eventPublisher = eventPublisher;
     }
 
+    /**
+     * With {@code thomascup.events.kafka.enabled} the event is first published and only stored
+     * locally once Kafka acknowledged it; other replicas pick it up from the topic. The send is
+     * batched with concurrent requests by the producer, the caller just waits for its batch.
+     * Events this replica already stored are answered without publishing them again; concurrent
+     * duplicates can still both be published and are dropped when materialized.
+     */
     public TrackingEvent addEvent(TrackingEvent event) {
+        if (eventPublisher != null) {
+            Optional<TrackingEvent> saved = eventRepository.findSaved(event);
+            if (saved.isPresent()) {
+                return saved.get();
+            }
+            try {
+                eventPublisher.publish(event).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
         return eventRepository.saveEvent(event);
     }
+
+    public Optional<TrackingEvent> getLatestEvent(String trackingId) {
+        return eventRepository.getLatest(trackingId);
+    }
+
+    public EventPage getEvents(String trackingId, Instant from, Instant to, int limit, String cursor) {
+        return eventRepository.getEvents(trackingId, from, to, limit, cursor);
+    }
 }
@@ -0,0 +1,131 @@
+package com.thomascup.service;
+
+import com.thomascup.model.MatchResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Fans the records of one poll out to a fixed number of worker lanes by {@code id:gameNumber}.
+ * <p>
+ * All records of a game land in the same lane and keep their poll order, so per-game writes are
+ * still applied in offset order while different games are written concurrently. With a single
+ * lane everything runs on the calling (consumer) thread. Lane threads follow
+ * {@code spring.threads.virtual.enabled} like the listener containers' consumer threads.
+ */
+final class KeyOrderedLanes implements AutoCloseable {
+    private final int lanes;
+    private final ExecutorService executor;
+
+    KeyOrderedLanes(String name, int lanes) {
+        this(name, lanes, false);
+    }
+
+    KeyOrderedLanes(String name, int lanes, boolean virtualThreads) {
+        if (lanes < 1) {
+            throw new IllegalArgumentException("lanes must be at least 1 for " + name + ": " + lanes);
+        }
+        this.lanes = lanes;
+        if (lanes == 1) {
+            this.executor = null;
+        } else if (virtualThreads) {
+            // At most one task per lane is in flight, so a thread per task stays bounded by lanes
+            this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-lane-", 0).factory());
+        } else {
+            AtomicInteger threadNumber = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(lanes, runnable -> {
+                Thread thread = new Thread(runnable, name + "-lane-" + threadNumber.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    int lanes() {
+        return lanes;
+    }
+
+    int laneOf(MatchResult result) {
+        if (lanes == 1) {
+            return 0;
+        }
+        int h = (result.getId() + ":" + result.getGameNumber()).hashCode();
+        return Math.floorMod(h ^ (h >>> 16), lanes);
+    }
+
+    /**
+     * Splits poll positions into lanes, keeping their relative order within each lane.
+     */
+    int[][] split(int[] positions, List<MatchResult> decoded) {
+        if (lanes == 1) {
+            return new int[][]{positions};
+        }
+        int[][] split = new int[lanes][positions.length];
+        int[] sizes = new int[lanes];
+        for (int position : positions) {
+            int lane = laneOf(decoded.get(position));
+            split[lane][sizes[lane]++] = position;
+        }
+        for (int lane = 0; lane < lanes; lane++) {
+            split[lane] = Arrays.copyOf(split[lane], sizes[lane]);
+        }
+        return split;
+    }
+
+    /**
+     * Runs {@code task} for every non-empty lane concurrently and waits for all of them, so nothing
+     * from this poll is still in flight when the next one starts. Results are in lane order, with
+     * {@code null} for empty lanes.
+     */
+    <R> List<R> invokeAll(int[][] split, Function<int[], R> task) {
+        List<R> results = new ArrayList<>(split.length);
+        if (executor == null) {
+            for (int[] lane : split) {
+                results.add(lane.length == 0 ? null : task.apply(lane));
+            }
+            return results;
+        }
+        List<CompletableFuture<R>> futures = new ArrayList<>(split.length);
+        for (int[] lane : split) {
+            futures.add(lane.length == 0
+                    ? CompletableFuture.completedFuture(null)
+                    : CompletableFuture.supplyAsync(() -> task.apply(lane), executor));
+        }
+        RuntimeException failure = null;
+        for (CompletableFuture<R> future : futures) {
+            try {
+                results.add(future.join());
+            } catch (CompletionException e) {
+                // Keep joining: the other lanes must finish before the poll is acknowledged or retried
+                results.add(null);
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException cause ? cause : e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.thomascup.service;
+
+import com.thomascup.mapper.KafkaValueDecoder;
+import com.thomascup.model.LiveMatch;
+import com.thomascup.model.MatchResult;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory read model of the latest score of every match, fed from {@code thomas-cup-matches}
+ * and {@code update-score}.
+ * <p>
+ * Every instance uses its own consumer group ({@code thomascup.scoreboard.group-id}, stable across
+ * restarts of the same instance) and seeks to the beginning on assignment, so the index is rebuilt
+ * from the topics (7 day retention) on each start and all instances hold every match. Updates replace the whole {@link LiveMatch} atomically; reads are plain map lookups.
+ */
+@Service
+@ConditionalOnProperty(name = "thomascup.scoreboard.enabled", havingValue = "true", matchIfMissing = true)
+public class LiveScoreboard implements ConsumerSeekAware, MeterBinder {
+    private static final Logger logger = LoggerFactory.getLogger(LiveScoreboard.class);
+
+    private final Map<String, LiveMatch> matches = new ConcurrentHashMap<>();
+    private final Set<String> undecided = ConcurrentHashMap.newKeySet();
+    private final KafkaValueDecoder valueDecoder;
+    private final Duration liveIdleTimeout;
+    private final Clock clock;
+
+    @Autowired
+    public LiveScoreboard(KafkaValueDecoder valueDecoder,
+                          @Value("${thomascup.scoreboard.live-idle-timeout:PT2H}") Duration liveIdleTimeout) {
+        this(valueDecoder, liveIdleTimeout, Clock.systemUTC());
+    }
+
+    LiveScoreboard(KafkaValueDecoder valueDecoder, Duration liveIdleTimeout, Clock clock) {
+        this.valueDecoder = valueDecoder;
+        this.liveIdleTimeout = liveIdleTimeout;
+        this.clock = clock;
+    }
+
+    @KafkaListener(topics = {"thomas-cup-matches", "update-score"}, id = "thomas-cup-scoreboard",
+            groupId = "${thomascup.scoreboard.group-id:thomas-cup-scoreboard-${HOSTNAME:local}}",
+            containerFactory = "scoreboardKafkaListenerContainerFactory")
+    public void onRecords(List<ConsumerRecord<String, byte[]>> records) {
+        for (ConsumerRecord<String, byte[]> record : records) {
+            List<MatchResult> results;
+            try {
+                // A MatchHead snapshot on thomas-cup-matches applies every game it lists
+                results = valueDecoder.decodeResults(record);
+            } catch (IllegalArgumentException e) {
+                logger.debug("Skipping record from topic '{}' at offset {}: {}", record.topic(), record.offset(), e.getMessage());
+                continue;
+            }
+            for (MatchResult result : results) {
+                apply(result, Instant.ofEpochMilli(record.timestamp()));
+            }
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        callback.seekToBeginning(assignments.keySet());
+    }
+
+    void apply(MatchResult result, Instant recordTime) {
+        if (result.getId() == null) {
+            return;
+        }
+        LiveMatch updated = matches.compute(result.getId(), (id, previous) -> LiveMatch.apply(previous, result, recordTime));
+        if (updated == null) {
+            return;
+        }
+        if (updated.isDecided()) {
+            undecided.remove(updated.id());
+        } else {
+            undecided.add(updated.id());
+        }
+    }
+
+    public Optional<LiveMatch> find(String matchId) {
+        return Optional.ofNullable(matches.get(matchId));
+    }
+
+    /**
+     * @return undecided matches updated within the idle timeout, most recently updated first
+     */
+    public List<LiveMatch> live() {
+        Instant cutoff = clock.instant().minus(liveIdleTimeout);
+        return undecided.stream()
+                .map(matches::get)
+                .filter(match -> match != null && !match.isDecided() && match.updatedAt().isAfter(cutoff))
+                .sorted(Comparator.comparing(LiveMatch::updatedAt).reversed())
+                .toList();
+    }
+
+    public List<LiveMatch> all(int limit) {
+        return matches.values().stream()
+                .sorted(Comparator.comparing(LiveMatch::updatedAt).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("thomascup.scoreboard.matches", matches, Map::size)
+                .description("Matches held by the in-memory scoreboard")
+                .register(registry);
+    }
+}
@@ -0,0 +1,70 @@
+package com.thomascup.service;
+
+import com.thomascup.model.MatchAggregate;
+import com.thomascup.streams.MatchAggregationTopology;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyQueryMetadata;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.state.HostInfo;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Interactive queries against the {@link MatchAggregationTopology} state store.
+ * <p>
+ * Each instance only holds the matches of its own partitions; {@link #ownerOf} tells callers
+ * which instance to ask for the others.
+ */
+@Service
+@ConditionalOnProperty(name = "thomascup.streams.enabled", havingValue = "true")
+public class MatchAggregateQueryService {
+    private final StreamsBuilderFactoryBean streamsBuilderFactoryBean;
+    private final HostInfo self;
+
+    public MatchAggregateQueryService(StreamsBuilderFactoryBean streamsBuilderFactoryBean,
+                                      @Value("${thomascup.streams.application-server:localhost:${server.port:8080}}") String applicationServer) {
+        this.streamsBuilderFactoryBean = streamsBuilderFactoryBean;
+        this.self = HostInfo.buildFromEndpoint(applicationServer);
+    }
+
+    /**
+     * @return whether the streams instance is running and its stores can be queried
+     */
+    public boolean isQueryable() {
+        KafkaStreams streams = streamsBuilderFactoryBean.getKafkaStreams();
+        return streams != null && streams.state() == KafkaStreams.State.RUNNING;
+    }
+
+    /**
+     * @return the instance hosting the match, or empty if it is this one or not yet known
+     */
+    public Optional<HostInfo> ownerOf(String matchId) {
+        KeyQueryMetadata metadata = streams().queryMetadataForKey(
+                MatchAggregationTopology.STORE_NAME, matchId, Serdes.String().serializer());
+        if (metadata == null || KeyQueryMetadata.NOT_AVAILABLE.equals(metadata) || self.equals(metadata.activeHost())) {
+            return Optional.empty();
+        }
+        return Optional.of(metadata.activeHost());
+    }
+
+    public Optional<MatchAggregate> findLocal(String matchId) {
+        ReadOnlyKeyValueStore<String, MatchAggregate> store = streams().store(StoreQueryParameters.fromNameAndType(
+                MatchAggregationTopology.STORE_NAME, QueryableStoreTypes.keyValueStore()));
+        return Optional.ofNullable(store.get(matchId));
+    }
+
+    private KafkaStreams streams() {
+        KafkaStreams streams = streamsBuilderFactoryBean.getKafkaStreams();
+        if (streams == null) {
+            throw new IllegalStateException("Kafka Streams is not started");
+        }
+        return streams;
+    }
+}
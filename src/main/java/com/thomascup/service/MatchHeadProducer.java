@@ -1,39 +1,57 @@
 package com.thomascup.service;
 
+import com.thomascup.cache.ScoreStateTable;
 import com.thomascup.model.MatchHead;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
-public class MatchHeadProducer {
+public class MatchHeadProducer implements MeterBinder {
     private static final String TOPIC = "thomas-cup-matches";
+    private static final int DEDUP_MAX_ENTRIES = 50_000;
+    private static final Duration DEDUP_IDLE_TTL = Duration.ofMinutes(30);
+    private static final Duration DEDUP_FINISHED_TTL = Duration.ofMinutes(2); // Only guards against client retries
 
     @Autowired
     private KafkaTemplate<String, MatchHead> kafkaTemplate;
 
-    // In-memory store for idempotency: id+gameNumber -> last processed MatchHead
-    private final Map<String, MatchHead> latestHeads = new ConcurrentHashMap<>();
+    // Bounded store for idempotency: id -> packed scores and time of the last processed MatchHead
+    private final ScoreStateTable latestHeads = new ScoreStateTable(DEDUP_MAX_ENTRIES, DEDUP_IDLE_TTL, DEDUP_FINISHED_TTL);
+    // Send decisions, so the dedup suppression ratio can be graphed
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
 
     public void sendMatchHead(MatchHead matchHead) {
         // Use id as key to guarantee per-id ordering and partition affinity
         String key = matchHead.getId();
-        MatchHead last = latestHeads.get(key);
-        boolean shouldSend = false;
-        if (last == null) {
-            shouldSend = true;
-        } else if (matchHead.getMatchDateTime() != null && last.getMatchDateTime() != null) {
-            // Only send if the new event is newer or the scores have changed
-            shouldSend = matchHead.getMatchDateTime().isAfter(last.getMatchDateTime()) ||
-                !matchHead.getScores().equals(last.getScores());
-        }
-        if (shouldSend) {
-            // Keyed send: ensures all records for the same matchId go to the same partition
-            kafkaTemplate.send(TOPIC, key, matchHead);
-            latestHeads.put(key, matchHead);
+        // Only send if this is the first event, a newer one, or the scores have changed
+        boolean shouldSend = latestHeads.offer(key,
+                ScoreStateTable.pack(matchHead.getScores()),
+                ScoreStateTable.epochMillis(matchHead.getMatchDateTime()));
+        if (!shouldSend) {
+            suppressed.increment();
+            return;
         }
+        sent.increment();
+        // Keyed send: ensures all records for the same matchId go to the same partition
+        kafkaTemplate.send(TOPIC, key, matchHead);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        latestHeads.bindTo(registry, "match-heads");
+        FunctionCounter.builder("thomascup.producer.dedup", sent, LongAdder::sum)
+                .description("Producer send decisions after the idempotency check")
+                .tags("producer", "match-heads", "outcome", "sent").register(registry);
+        FunctionCounter.builder("thomascup.producer.dedup", suppressed, LongAdder::sum)
+                .description("Producer send decisions after the idempotency check")
+                .tags("producer", "match-heads", "outcome", "suppressed").register(registry);
     }
 }
@@ -0,0 +1,289 @@
+package com.thomascup.service;
+
+import com.thomascup.mapper.KafkaValueDecoder;
+import com.thomascup.model.MatchResult;
+import com.thomascup.tracing.HopLatencyRecorder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Batch-consuming variant of {@link MatchResultDbConsumer}.
+ * <p>
+ * Each poll is written with a single JDBC batch per topic instead of one round trip per record.
+ * Offsets are committed by the container only once the listener returns, i.e. after the whole
+ * batch is in the database. If the batch fails, records are replayed one by one to find the
+ * poison record, which is reported through {@link BatchListenerFailedException} so the error
+ * handler commits everything before it and retries/skips only that record.
+ * <p>
+ * Each listener can optionally fan its poll out to several {@link KeyOrderedLanes} keyed by
+ * {@code id:gameNumber} ({@code thomascup.db-writer.parallel.<listener id>}), so one slow upsert no
+ * longer stalls the whole partition. Lanes fail independently; the listener reports the lowest
+ * failed poll position, so only the contiguous prefix of completed records is committed and
+ * anything after it is redelivered (all statements are idempotent upserts).
+ * <p>
+ * With {@code thomascup.db-writer.offsets.store=database} ({@link DbOffsetStore}) a poll is
+ * instead written in one transaction on one connection, together with the next offset of its
+ * partitions; lanes are not used then.
+ */
+@Service
+@ConditionalOnProperty(name = "thomascup.db-writer.batch.enabled", havingValue = "true")
+public class MatchResultDbBatchConsumer implements ConsumerSeekAware {
+    private static final Logger logger = LoggerFactory.getLogger(MatchResultDbBatchConsumer.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private KafkaValueDecoder valueDecoder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private HopLatencyRecorder hopLatencyRecorder;
+
+    @Autowired(required = false)
+    private MatchResultSql sql = MatchResultSql.POSTGRESQL;
+
+    @Autowired(required = false)
+    private DbOffsetStore offsetStore;
+
+    @Value("${thomascup.db-writer.coalesce.enabled:true}")
+    private boolean coalesceScoreUpdates = true;
+
+    @Value("${thomascup.db-writer.parallel.thomas-cup-db-main:1}")
+    private int mainLanes = 1;
+
+    @Value("${thomascup.db-writer.parallel.thomas-cup-db-new-game:1}")
+    private int newGameLanes = 1;
+
+    @Value("${thomascup.db-writer.parallel.thomas-cup-db-update-score:1}")
+    private int updateScoreLanes = 1;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final Map<String, KeyOrderedLanes> lanesByListener = new ConcurrentHashMap<>();
+
+    @KafkaListener(topics = "thomas-cup-matches", groupId = MatchResultDbConsumer.GROUP_ID, containerFactory = "matchResultBatchKafkaListenerContainerFactory", id = "thomas-cup-db-main",
+            autoStartup = "${thomascup.db-writer.auto-startup:true}")
+    public void saveLatestToDb(List<ConsumerRecord<String, Object>> records) {
+        writeBatch("thomas-cup-db-main", records, sql.upsertLatest(), false, lanes("thomas-cup-db-main", mainLanes));
+    }
+
+    @KafkaListener(topics = "new-game", groupId = MatchResultDbConsumer.GROUP_ID, containerFactory = "matchResultBatchKafkaListenerContainerFactory", id = "thomas-cup-db-new-game",
+            autoStartup = "${thomascup.db-writer.auto-startup:true}")
+    public void saveNewGameToDb(List<ConsumerRecord<String, Object>> records) {
+        writeBatch("thomas-cup-db-new-game", records, sql.insertNewGame(), false, lanes("thomas-cup-db-new-game", newGameLanes));
+    }
+
+    @KafkaListener(topics = "update-score", groupId = MatchResultDbConsumer.GROUP_ID, containerFactory = "updateScoreBatchKafkaListenerContainerFactory", id = "thomas-cup-db-update-score",
+            autoStartup = "${thomascup.db-writer.auto-startup:true}")
+    public void updateScoreInDb(List<ConsumerRecord<String, Object>> records) {
+        writeBatch("thomas-cup-db-update-score", records, sql.upsertScore(), coalesceScoreUpdates, lanes("thomas-cup-db-update-score", updateScoreLanes));
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        if (offsetStore != null) {
+            offsetStore.seek(MatchResultDbConsumer.GROUP_ID, assignments.keySet(), callback);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lanesByListener.values().forEach(KeyOrderedLanes::close);
+    }
+
+    private KeyOrderedLanes lanes(String listenerId, int count) {
+        return lanesByListener.computeIfAbsent(listenerId, id -> new KeyOrderedLanes(id, count, virtualThreads));
+    }
+
+    private void writeBatch(String listenerId, List<ConsumerRecord<String, Object>> records, String sql, boolean coalesce, KeyOrderedLanes lanes) {
+        long polledAt = System.currentTimeMillis();
+        List<MatchResult> decoded = new ArrayList<>(records.size());
+        // Poll position of the record behind each decoded result: a MatchHead yields one per game
+        List<Integer> sources = new ArrayList<>(records.size());
+        int decodedRecords = 0;
+        RuntimeException decodeFailure = null;
+        for (ConsumerRecord<String, Object> record : records) {
+            try {
+                List<MatchResult> results = valueDecoder.decodeResults(record);
+                decoded.addAll(results);
+                for (int i = 0; i < results.size(); i++) {
+                    sources.add(decodedRecords);
+                }
+                decodedRecords++;
+            } catch (RuntimeException e) {
+                // Stop here: everything before this record is written, everything after is redelivered
+                PipelineMetrics.deserializationFailures(meterRegistry, record.topic(), "db-writer").increment();
+                decodeFailure = e;
+                break;
+            }
+        }
+
+        int[] writes = coalesce ? ScoreUpdateCoalescer.newestPerGame(decoded) : allOf(decoded);
+        if (coalesce && writes.length < decoded.size()) {
+            meterRegistry.counter("thomascup.db.writes.coalesced", "topic", records.get(0).topic())
+                    .increment(decoded.size() - writes.length);
+        }
+
+        WriteFailure firstFailure = null;
+        if (offsetStore != null) {
+            firstFailure = writeWithOffsets(listenerId, records, decoded, writes, sql, sources, decodedRecords);
+        } else if (writes.length > 0) {
+            List<WriteFailure> laneFailures = lanes.invokeAll(lanes.split(writes, decoded),
+                    lane -> writeLane(listenerId, records, decoded, lane, sql));
+            for (WriteFailure failure : laneFailures) {
+                if (failure != null && (firstFailure == null || failure.position() < firstFailure.position())) {
+                    firstFailure = failure;
+                }
+            }
+        }
+
+        // Every record before the first failure is in the database (superseded updates count as
+        // written by the newer one)
+        int written = recordsWritten(firstFailure, sources, decodedRecords);
+        long writtenAt = System.currentTimeMillis();
+        for (int i = 0; i < written; i++) {
+            hopLatencyRecorder.record(records.get(i), polledAt, writtenAt);
+        }
+
+        if (firstFailure != null) {
+            ConsumerRecord<String, Object> poison = records.get(sources.get(firstFailure.position()));
+            logger.error("Failed to write record from topic '{}' partition {} at offset {}: {}",
+                    poison.topic(), poison.partition(), poison.offset(), firstFailure.cause().getMessage(), firstFailure.cause());
+            throw new BatchListenerFailedException("Failed to write MatchResult", firstFailure.cause(), poison);
+        }
+
+        if (decodeFailure != null) {
+            ConsumerRecord<String, Object> poison = records.get(decodedRecords);
+            logger.error("Failed to decode record from topic '{}' partition {} at offset {}: {}",
+                    poison.topic(), poison.partition(), poison.offset(), decodeFailure.getMessage());
+            throw new BatchListenerFailedException("Undecodable MatchResult", decodeFailure, poison);
+        }
+    }
+
+    /**
+     * Writes the poll and the next offset of its partitions in one transaction. A failed batch is
+     * rolled back to a savepoint and redone record by record, so the records before the failing one
+     * still commit with their offsets.
+     */
+    private WriteFailure writeWithOffsets(String listenerId, List<ConsumerRecord<String, Object>> records, List<MatchResult> decoded, int[] writes, String sql,
+                                          List<Integer> sources, int decodedRecords) {
+        return offsetStore.inTransaction(status -> {
+            WriteFailure failure = null;
+            if (writes.length > 0) {
+                List<Object[]> batchArgs = sqlArgs(decoded, writes);
+                Object beforeBatch = status.createSavepoint();
+                Timer.Sample sample = Timer.start(meterRegistry);
+                try {
+                    jdbcTemplate.batchUpdate(sql, batchArgs);
+                    sample.stop(PipelineMetrics.upsertTimer(meterRegistry, listenerId, "success"));
+                } catch (DataAccessException e) {
+                    sample.stop(PipelineMetrics.upsertTimer(meterRegistry, listenerId, "failure"));
+                    logger.warn("Batch of {} records from topic '{}' failed, retrying record by record: {}",
+                            batchArgs.size(), records.get(0).topic(), e.getMessage());
+                    status.rollbackToSavepoint(beforeBatch);
+                    failure = writeOneByOne(listenerId, writes, batchArgs, sql, status);
+                }
+            }
+            offsetStore.save(MatchResultDbConsumer.GROUP_ID, records.subList(0, recordsWritten(failure, sources, decodedRecords)));
+            return failure;
+        });
+    }
+
+    private WriteFailure writeOneByOne(String listenerId, int[] writes, List<Object[]> batchArgs, String sql, TransactionStatus status) {
+        for (int i = 0; i < writes.length; i++) {
+            // A failed statement aborts a PostgreSQL transaction, so undo just that one
+            Object beforeWrite = status.createSavepoint();
+            Timer.Sample single = Timer.start(meterRegistry);
+            try {
+                jdbcTemplate.update(sql, batchArgs.get(i));
+                single.stop(PipelineMetrics.upsertTimer(meterRegistry, listenerId, "success"));
+                status.releaseSavepoint(beforeWrite);
+            } catch (DataAccessException e) {
+                single.stop(PipelineMetrics.upsertTimer(meterRegistry, listenerId, "failure"));
+                status.rollbackToSavepoint(beforeWrite);
+                return new WriteFailure(writes[i], e);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes one lane as a single JDBC batch, falling back to one statement per record to find the
+     * failing one. Returns the first failed poll position, or {@code null} if the lane completed.
+     */
+    private WriteFailure writeLane(String listenerId, List<ConsumerRecord<String, Object>> records, List<MatchResult> decoded, int[] lane, String sql) {
+        List<Object[]> batchArgs = sqlArgs(decoded, lane);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            jdbcTemplate.batchUpdate(sql, batchArgs);
+            sample.stop(PipelineMetrics.upsertTimer(meterRegistry, listenerId, "success"));
+            return null;
+        } catch (DataAccessException e) {
+            sample.stop(PipelineMetrics.upsertTimer(meterRegistry, listenerId, "failure"));
+            logger.warn("Batch of {} records from topic '{}' failed, retrying record by record: {}",
+                    batchArgs.size(), records.get(0).topic(), e.getMessage());
+        }
+        for (int i = 0; i < lane.length; i++) {
+            Timer.Sample single = Timer.start(meterRegistry);
+            try {
+                jdbcTemplate.update(sql, batchArgs.get(i));
+                single.stop(PipelineMetrics.upsertTimer(meterRegistry, listenerId, "success"));
+            } catch (DataAccessException e) {
+                single.stop(PipelineMetrics.upsertTimer(meterRegistry, listenerId, "failure"));
+                // Later records of this lane may belong to the same game, so stop to keep their order
+                return new WriteFailure(lane[i], e);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Records fully in the database: those before the one whose result failed, or every decoded one.
+     */
+    private static int recordsWritten(WriteFailure failure, List<Integer> sources, int decodedRecords) {
+        return failure != null ? sources.get(failure.position()) : decodedRecords;
+    }
+
+    private static List<Object[]> sqlArgs(List<MatchResult> decoded, int[] positions) {
+        List<Object[]> batchArgs = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            batchArgs.add(MatchResultDbConsumer.toSqlArgs(decoded.get(position)));
+        }
+        return batchArgs;
+    }
+
+    private static int[] allOf(List<MatchResult> decoded) {
+        int[] all = new int[decoded.size()];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = i;
+        }
+        return all;
+    }
+
+    private record WriteFailure(int position, DataAccessException cause) {
+    }
+}
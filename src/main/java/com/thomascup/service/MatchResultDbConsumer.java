@@ -1,42 +1,73 @@
 package com.thomascup.service;
 
+import com.thomascup.mapper.KafkaValueDecoder;
 import com.thomascup.model.MatchResult;
+import com.thomascup.tracing.HopLatencyRecorder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.List;
+import java.util.Map;
 
 @Service
-public class MatchResultDbConsumer {
+@ConditionalOnProperty(name = "thomascup.db-writer.batch.enabled", havingValue = "false", matchIfMissing = true)
+public class MatchResultDbConsumer implements ConsumerSeekAware {
     private static final Logger logger = LoggerFactory.getLogger(MatchResultDbConsumer.class);
 
+    static final String GROUP_ID = "db-writer-group";
+
+    // PostgreSQL UPSERT: insert if not exists, update if exists
+    static final String UPSERT_LATEST_SQL = "INSERT INTO match_results (id, teamA, teamB, teamAScore, teamBScore, winner, matchDateTime, gameNumber) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (id, gameNumber) DO UPDATE SET " +
+            "teamA = EXCLUDED.teamA, teamB = EXCLUDED.teamB, teamAScore = EXCLUDED.teamAScore, " +
+            "teamBScore = EXCLUDED.teamBScore, winner = EXCLUDED.winner, matchDateTime = EXCLUDED.matchDateTime";
+
+    static final String INSERT_NEW_GAME_SQL = "INSERT INTO match_results (id, teamA, teamB, teamAScore, teamBScore, winner, matchDateTime, gameNumber) VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (id, gameNumber) DO NOTHING";
+
+    static final String UPSERT_SCORE_SQL = "INSERT INTO match_results (id, teamA, teamB, teamAScore, teamBScore, winner, matchDateTime, gameNumber) VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (id, gameNumber) DO UPDATE SET teamAScore = EXCLUDED.teamAScore, teamBScore = EXCLUDED.teamBScore, winner = EXCLUDED.winner, matchDateTime = EXCLUDED.matchDateTime";
+
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
-    @KafkaListener(topics = "thomas-cup-matches", groupId = "db-writer-group", containerFactory = "matchResultKafkaListenerContainerFactory", id = "thomas-cup-db-main")
-    public void saveLatestToDb(ConsumerRecord<String, MatchResult> record) {
+    @Autowired
+    private KafkaValueDecoder valueDecoder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private HopLatencyRecorder hopLatencyRecorder;
+
+    // Dialect picked from the DataSource (DatabaseConfig); PostgreSQL unless running on H2
+    @Autowired(required = false)
+    private MatchResultSql sql = MatchResultSql.POSTGRESQL;
+
+    // Only with thomascup.db-writer.offsets.store=database: each upsert commits with its offset
+    @Autowired(required = false)
+    private DbOffsetStore offsetStore;
+
+    @KafkaListener(topics = "thomas-cup-matches", groupId = GROUP_ID, containerFactory = "matchResultKafkaListenerContainerFactory", id = "thomas-cup-db-main",
+            autoStartup = "${thomascup.db-writer.auto-startup:true}")
+    public void saveLatestToDb(ConsumerRecord<String, Object> record) {
+        long polledAt = System.currentTimeMillis();
         try {
-            MatchResult matchResult = record.value();
-            // PostgreSQL UPSERT: insert if not exists, update if exists
-            String sql = "INSERT INTO match_results (id, teamA, teamB, teamAScore, teamBScore, winner, matchDateTime, gameNumber) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
-                    "ON CONFLICT (id, gameNumber) DO UPDATE SET " +
-                    "teamA = EXCLUDED.teamA, teamB = EXCLUDED.teamB, teamAScore = EXCLUDED.teamAScore, " +
-                    "teamBScore = EXCLUDED.teamBScore, winner = EXCLUDED.winner, matchDateTime = EXCLUDED.matchDateTime";
-            jdbcTemplate.update(sql,
-                    matchResult.getId(),
-                    matchResult.getTeamA(),
-                    matchResult.getTeamB(),
-                    matchResult.getTeamAScore(),
-                    matchResult.getTeamBScore(),
-                    matchResult.getWinner(),
-                    matchResult.getMatchDateTime() != null ? java.sql.Timestamp.valueOf(matchResult.getMatchDateTime()) : null,
-                    matchResult.getGameNumber()
-            );
+            // A MatchHead snapshot (JSON or Avro) upserts every game it lists
+            List<Object[]> rows = decodeResults(record).stream().map(MatchResultDbConsumer::toSqlArgs).toList();
+            write(record, "thomas-cup-db-main", sql.upsertLatest(), rows);
+            hopLatencyRecorder.record(record, polledAt, System.currentTimeMillis());
         } catch (Exception e) {
             logger.error("Failed to process record from topic 'thomas-cup-matches' at offset {}: {}", record.offset(), e.getMessage(), e);
             logger.error("Raw record value: {}", record.value());
@@ -44,29 +75,77 @@ public class MatchResultDbConsumer {
         }
     }
 
-    @KafkaListener(topics = "new-game", groupId = "db-writer-group", containerFactory = "matchResultKafkaListenerContainerFactory", id = "thomas-cup-db-new-game")
+    @KafkaListener(topics = "new-game", groupId = GROUP_ID, containerFactory = "matchResultKafkaListenerContainerFactory", id = "thomas-cup-db-new-game",
+            autoStartup = "${thomascup.db-writer.auto-startup:true}")
     public void saveNewGameToDb(ConsumerRecord<String, Object> record) {
-        MatchResult matchResult = extractMatchResult(record.value());
-        String sql = "INSERT INTO match_results (id, teamA, teamB, teamAScore, teamBScore, winner, matchDateTime, gameNumber) VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
-                "ON CONFLICT (id, gameNumber) DO NOTHING";
-        jdbcTemplate.update(sql,
-                matchResult.getId(),
-                matchResult.getTeamA(),
-                matchResult.getTeamB(),
-                matchResult.getTeamAScore(),
-                matchResult.getTeamBScore(),
-                matchResult.getWinner(),
-                matchResult.getMatchDateTime() != null ? java.sql.Timestamp.valueOf(matchResult.getMatchDateTime()) : null,
-                matchResult.getGameNumber()
-        );
+        long polledAt = System.currentTimeMillis();
+        MatchResult matchResult = decode(record);
+        write(record, "thomas-cup-db-new-game", sql.insertNewGame(), List.<Object[]>of(toSqlArgs(matchResult)));
+        hopLatencyRecorder.record(record, polledAt, System.currentTimeMillis());
     }
 
-    @KafkaListener(topics = "update-score", groupId = "db-writer-group", containerFactory = "matchResultKafkaListenerContainerFactory", id = "thomas-cup-db-update-score")
+    @KafkaListener(topics = "update-score", groupId = GROUP_ID, containerFactory = "matchResultKafkaListenerContainerFactory", id = "thomas-cup-db-update-score",
+            autoStartup = "${thomascup.db-writer.auto-startup:true}")
     public void updateScoreInDb(ConsumerRecord<String, Object> record) {
-        MatchResult matchResult = extractMatchResult(record.value());
-        String sql = "INSERT INTO match_results (id, teamA, teamB, teamAScore, teamBScore, winner, matchDateTime, gameNumber) VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
-                "ON CONFLICT (id, gameNumber) DO UPDATE SET teamAScore = EXCLUDED.teamAScore, teamBScore = EXCLUDED.teamBScore, winner = EXCLUDED.winner, matchDateTime = EXCLUDED.matchDateTime";
-        jdbcTemplate.update(sql,
+        long polledAt = System.currentTimeMillis();
+        MatchResult matchResult = decode(record);
+        write(record, "thomas-cup-db-update-score", sql.upsertScore(), List.<Object[]>of(toSqlArgs(matchResult)));
+        hopLatencyRecorder.record(record, polledAt, System.currentTimeMillis());
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        if (offsetStore != null) {
+            offsetStore.seek(GROUP_ID, assignments.keySet(), callback);
+        }
+    }
+
+    private void write(ConsumerRecord<String, ?> record, String listenerId, String statement, List<Object[]> rows) {
+        if (offsetStore == null) {
+            rows.forEach(args -> upsert(listenerId, statement, args));
+            return;
+        }
+        offsetStore.inTransaction(status -> {
+            rows.forEach(args -> upsert(listenerId, statement, args));
+            offsetStore.save(GROUP_ID, List.of(record));
+            return null;
+        });
+    }
+
+    private MatchResult decode(ConsumerRecord<String, Object> record) {
+        try {
+            return valueDecoder.decode(record.value(), MatchResult.class);
+        } catch (IllegalArgumentException e) {
+            PipelineMetrics.deserializationFailures(meterRegistry, record.topic(), "db-writer").increment();
+            throw e;
+        }
+    }
+
+    private List<MatchResult> decodeResults(ConsumerRecord<String, Object> record) {
+        try {
+            return valueDecoder.decodeResults(record);
+        } catch (IllegalArgumentException e) {
+            PipelineMetrics.deserializationFailures(meterRegistry, record.topic(), "db-writer").increment();
+            throw e;
+        }
+    }
+
+    private void upsert(String listenerId, String statement, Object[] args) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            jdbcTemplate.update(statement, args);
+            outcome = "success";
+        } finally {
+            sample.stop(PipelineMetrics.upsertTimer(meterRegistry, listenerId, outcome));
+        }
+    }
+
+    /**
+     * Bind parameters for the match_results statements above, in column order.
+     */
+    static Object[] toSqlArgs(MatchResult matchResult) {
+        return new Object[] {
                 matchResult.getId(),
                 matchResult.getTeamA(),
                 matchResult.getTeamB(),
@@ -75,27 +154,6 @@ public class MatchResultDbConsumer {
                 matchResult.getWinner(),
                 matchResult.getMatchDateTime() != null ? java.sql.Timestamp.valueOf(matchResult.getMatchDateTime()) : null,
                 matchResult.getGameNumber()
-        );
-    }
-
-    /**
-     * Helper method to extract MatchResult from either String (JSON) or MatchResult object
-     */
-    private MatchResult extractMatchResult(Object value) {
-        if (value instanceof MatchResult) {
-            return (MatchResult) value;
-        } else if (value instanceof String) {
-            try {
-                ObjectMapper mapper = new ObjectMapper();
-                mapper.findAndRegisterModules(); // For LocalDateTime support
-                return mapper.readValue((String) value, MatchResult.class);
-            } catch (Exception e) {
-                logger.error("Failed to deserialize JSON to MatchResult: {}", value, e);
-                throw new RuntimeException("Invalid MatchResult JSON", e);
-            }
-        } else {
-            throw new IllegalArgumentException("Expected MatchResult or String, got: " + 
-                (value != null ? value.getClass().getSimpleName() : "null"));
-        }
+        };
     }
 }
@@ -0,0 +1,76 @@
+package com.thomascup.service;
+
+import com.thomascup.model.MatchResult;
+import com.thomascup.model.MatchScores;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Routes incoming match results to their topics and hands back the Kafka send futures,
+ * for callers that need to wait for the broker acknowledgement without blocking on it.
+ */
+@Service
+@SuppressWarnings("deprecation")
+public class MatchResultIngestService {
+    public static final String NEW_GAME_TOPIC = "new-game";
+    public static final String UPDATE_SCORE_TOPIC = "update-score";
+
+    private final MatchResultProducer matchResultProducer;
+    private final KafkaTemplate<String, MatchResult> kafkaTemplate;
+
+    public MatchResultIngestService(MatchResultProducer matchResultProducer, KafkaTemplate<String, MatchResult> kafkaTemplate) {
+        this.matchResultProducer = matchResultProducer;
+        this.kafkaTemplate = kafkaTemplate;
+    }
+
+    /**
+     * @return the send future, completed with {@code null} if the result was a duplicate
+     */
+    public CompletableFuture<SendResult<String, MatchResult>> submitMatchResult(MatchResult matchResult) {
+        applyDefaults(matchResult);
+        return matchResultProducer.sendMatchResult(matchResult);
+    }
+
+    public CompletableFuture<SendResult<String, MatchResult>> startNewGame(MatchResult matchResult) {
+        applyDefaults(matchResult);
+        return kafkaTemplate.send(NEW_GAME_TOPIC, key(matchResult), matchResult);
+    }
+
+    /**
+     * Sends the score update; if it ends the game the final result is also emitted to the main
+     * topic, and the returned future completes once both sends are acknowledged.
+     */
+    public CompletableFuture<SendResult<String, MatchResult>> updateScore(MatchResult matchResult) {
+        applyDefaults(matchResult);
+        CompletableFuture<SendResult<String, MatchResult>> update = kafkaTemplate.send(UPDATE_SCORE_TOPIC, key(matchResult), matchResult);
+        if (!MatchScores.isGameOver(matchResult.getGameNumber(), matchResult.getTeamAScore(), matchResult.getTeamBScore())) {
+            return update;
+        }
+        if (matchResult.getWinner() == null || matchResult.getWinner().isBlank()) {
+            if (matchResult.getTeamAScore() > matchResult.getTeamBScore()) {
+                matchResult.setWinner(matchResult.getTeamA());
+            } else if (matchResult.getTeamBScore() > matchResult.getTeamAScore()) {
+                matchResult.setWinner(matchResult.getTeamB());
+            }
+        }
+        return update.thenCombine(matchResultProducer.sendMatchResult(matchResult), (updateResult, finalResult) -> updateResult);
+    }
+
+    private static void applyDefaults(MatchResult matchResult) {
+        if (matchResult.getId() == null || matchResult.getId().trim().isEmpty()) {
+            matchResult.setId(UUID.randomUUID().toString());
+        }
+        if (matchResult.getMatchDateTime() == null) {
+            matchResult.setMatchDateTime(LocalDateTime.now());
+        }
+    }
+
+    private static String key(MatchResult matchResult) {
+        return matchResult.getId() + ":" + matchResult.getGameNumber();
+    }
+}
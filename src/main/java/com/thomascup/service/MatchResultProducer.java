@@ -1,25 +1,40 @@
 package com.thomascup.service;
 
+import com.thomascup.cache.IdempotencyCache;
 import com.thomascup.model.MatchResult;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 @Deprecated // Use MatchHeadProducer instead
-public class MatchResultProducer {
+public class MatchResultProducer implements MeterBinder {
     private static final String TOPIC = "thomas-cup-matches";
+    private static final int DEDUP_MAX_ENTRIES = 50_000;
+    private static final Duration DEDUP_IDLE_TTL = Duration.ofMinutes(30);
+    private static final Duration DEDUP_FINISHED_TTL = Duration.ofMinutes(2); // Only guards against client retries
 
     @Autowired
     private KafkaTemplate<String, MatchResult> kafkaTemplate;
 
-    // In-memory store for idempotency: id+gameNumber -> last processed MatchResult
-    private final Map<String, MatchResult> latestResults = new ConcurrentHashMap<>();
+    // Bounded store for idempotency: id+gameNumber -> last processed MatchResult
+    private final IdempotencyCache<String, MatchResult> latestResults = new IdempotencyCache<>(DEDUP_MAX_ENTRIES, DEDUP_IDLE_TTL);
+    // Send decisions, so the dedup suppression ratio can be graphed
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
 
-    public void sendMatchResult(MatchResult matchResult) {
+    /**
+     * @return the send future, or a future completed with {@code null} if the result was a duplicate
+     */
+    public CompletableFuture<SendResult<String, MatchResult>> sendMatchResult(MatchResult matchResult) {
         String key = matchResult.getId() + ":" + matchResult.getGameNumber();
         MatchResult last = latestResults.get(key);
         boolean shouldSend = false;
@@ -31,9 +46,29 @@ public class MatchResultProducer {
                 matchResult.getTeamAScore() != last.getTeamAScore() ||
                 matchResult.getTeamBScore() != last.getTeamBScore();
         }
-        if (shouldSend) {
-            kafkaTemplate.send(TOPIC, key, matchResult);
+        if (!shouldSend) {
+            suppressed.increment();
+            return CompletableFuture.completedFuture(null);
+        }
+        sent.increment();
+        CompletableFuture<SendResult<String, MatchResult>> future = kafkaTemplate.send(TOPIC, key, matchResult);
+        boolean finished = matchResult.getWinner() != null && !matchResult.getWinner().isBlank();
+        if (finished) {
+            latestResults.put(key, matchResult, DEDUP_FINISHED_TTL);
+        } else {
             latestResults.put(key, matchResult);
         }
+        return future;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        latestResults.bindTo(registry, "match-results");
+        FunctionCounter.builder("thomascup.producer.dedup", sent, LongAdder::sum)
+                .description("Producer send decisions after the idempotency check")
+                .tags("producer", "match-results", "outcome", "sent").register(registry);
+        FunctionCounter.builder("thomascup.producer.dedup", suppressed, LongAdder::sum)
+                .description("Producer send decisions after the idempotency check")
+                .tags("producer", "match-results", "outcome", "suppressed").register(registry);
     }
 }
@@ -0,0 +1,367 @@
+package com.thomascup.service;
+
+import com.thomascup.mapper.KafkaValueDecoder;
+import com.thomascup.model.MatchResult;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rebuilds match_results from {@code thomas-cup-matches}, {@code new-game} and {@code update-score}
+ * without going through the per-record DB writers.
+ * <p>
+ * Every partition of the three topics is read by its own consumer, in parallel, from
+ * {@code thomascup.replay.from-timestamp} (or {@code from-offset}) up to the end offset seen at
+ * start. Records are reduced in memory to the final row per {@code (id, gameNumber)}, applying
+ * the writers' statement semantics in record timestamp order, and the rows are loaded in one
+ * transaction: {@code COPY} into an unindexed temp table, then a single
+ * {@code INSERT ... SELECT ... ON CONFLICT} into match_results. On H2 the rows go through a JDBC
+ * batch of the thomas-cup-matches upsert instead.
+ * <p>
+ * Runs at startup when {@code thomascup.replay.enabled=true}; the DB writers must not run at the
+ * same time ({@code thomascup.db-writer.auto-startup=false}), or the merge could overwrite newer
+ * rows they wrote meanwhile.
+ */
+@Service
+@ConditionalOnProperty(name = "thomascup.replay.enabled", havingValue = "true")
+public class MatchResultReplay implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(MatchResultReplay.class);
+
+    static final String MATCHES_TOPIC = "thomas-cup-matches";
+    static final String NEW_GAME_TOPIC = "new-game";
+    static final String UPDATE_SCORE_TOPIC = "update-score";
+    private static final List<String> TOPICS = List.of(MATCHES_TOPIC, NEW_GAME_TOPIC, UPDATE_SCORE_TOPIC);
+
+    private static final String COLUMNS = "id, teamA, teamB, teamAScore, teamBScore, winner, matchDateTime, gameNumber";
+    static final String CREATE_STAGING_SQL =
+            "CREATE TEMP TABLE match_results_replay (LIKE match_results INCLUDING DEFAULTS) ON COMMIT DROP";
+    static final String COPY_STAGING_SQL = "COPY match_results_replay (" + COLUMNS + ") FROM STDIN (FORMAT csv)";
+    // Rows are unique per key in the staging table; sorted so the primary key is walked in order
+    static final String MERGE_STAGING_SQL = "INSERT INTO match_results (" + COLUMNS + ") " +
+            "SELECT " + COLUMNS + " FROM match_results_replay ORDER BY id, gameNumber " +
+            "ON CONFLICT (id, gameNumber) DO UPDATE SET " +
+            "teamA = EXCLUDED.teamA, teamB = EXCLUDED.teamB, teamAScore = EXCLUDED.teamAScore, " +
+            "teamBScore = EXCLUDED.teamBScore, winner = EXCLUDED.winner, matchDateTime = EXCLUDED.matchDateTime";
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+    public record Report(long records, long skipped, int rows, Duration readTime, Duration loadTime) {
+        public double recordsPerSecond() {
+            long millis = readTime.plus(loadTime).toMillis();
+            return millis > 0 ? records * 1000.0 / millis : records;
+        }
+    }
+
+    private final ConsumerFactory<String, byte[]> consumerFactory;
+    private final KafkaValueDecoder valueDecoder;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MatchResultSql sql;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${thomascup.replay.from-timestamp:}")
+    private String fromTimestamp;
+
+    @Value("${thomascup.replay.from-offset:0}")
+    private long fromOffset;
+
+    @Value("${thomascup.replay.parallelism:8}")
+    private int parallelism;
+
+    @Value("${thomascup.replay.exit-when-done:true}")
+    private boolean exitWhenDone;
+
+    @Value("${thomascup.db-writer.auto-startup:true}")
+    private boolean dbWritersAutoStartup;
+
+    public MatchResultReplay(@Qualifier("replayConsumerFactory") ConsumerFactory<String, byte[]> consumerFactory,
+                             KafkaValueDecoder valueDecoder,
+                             JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             MatchResultSql sql,
+                             ConfigurableApplicationContext context) {
+        this.consumerFactory = consumerFactory;
+        this.valueDecoder = valueDecoder;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.sql = sql;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (dbWritersAutoStartup) {
+            throw new IllegalStateException("Replay needs the DB writers stopped: set thomascup.db-writer.auto-startup=false");
+        }
+        Report report = replay();
+        logger.info("Replayed {} records ({} skipped) into {} match_results rows: read {} ms, load {} ms, {} records/s",
+                report.records(), report.skipped(), report.rows(), report.readTime().toMillis(),
+                report.loadTime().toMillis(), Math.round(report.recordsPerSecond()));
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+
+    public Report replay() throws InterruptedException {
+        long started = System.nanoTime();
+        List<TopicPartition> partitions = partitions();
+        Map<String, GameState> games = new ConcurrentHashMap<>();
+        LongAdder records = new LongAdder();
+        LongAdder skipped = new LongAdder();
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService readers = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, partitions.size())), runnable -> {
+            Thread thread = new Thread(runnable, "replay-reader-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> reads = new ArrayList<>(partitions.size());
+            for (TopicPartition partition : partitions) {
+                reads.add(readers.submit(() -> readPartition(partition, games, records, skipped)));
+            }
+            for (Future<?> read : reads) {
+                read.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Replay read failed", e.getCause());
+        } finally {
+            readers.shutdownNow();
+        }
+        long read = System.nanoTime();
+
+        int rows = load(games.values());
+        return new Report(records.sum(), skipped.sum(), rows,
+                Duration.ofNanos(read - started), Duration.ofNanos(System.nanoTime() - read));
+    }
+
+    private List<TopicPartition> partitions() {
+        try (Consumer<String, byte[]> consumer = consumerFactory.createConsumer()) {
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (String topic : TOPICS) {
+                for (PartitionInfo info : consumer.partitionsFor(topic)) {
+                    partitions.add(new TopicPartition(topic, info.partition()));
+                }
+            }
+            return partitions;
+        }
+    }
+
+    private void readPartition(TopicPartition partition, Map<String, GameState> games, LongAdder records, LongAdder skipped) {
+        try (Consumer<String, byte[]> consumer = consumerFactory.createConsumer()) {
+            List<TopicPartition> assignment = List.of(partition);
+            consumer.assign(assignment);
+            long end = consumer.endOffsets(assignment).get(partition);
+            long start = startOffset(consumer, partition, end);
+            if (start >= end) {
+                return;
+            }
+            consumer.seek(partition, start);
+            long count = 0;
+            while (consumer.position(partition) < end) {
+                for (ConsumerRecord<String, byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                    if (record.offset() >= end) {
+                        break;
+                    }
+                    count++;
+                    if (!accumulate(games, record)) {
+                        skipped.increment();
+                    }
+                }
+            }
+            records.add(count);
+            logger.debug("Replayed {} records of {} from offset {}", count, partition, start);
+        }
+    }
+
+    private long startOffset(Consumer<String, byte[]> consumer, TopicPartition partition, long end) {
+        if (!fromTimestamp.isBlank()) {
+            OffsetAndTimestamp found = consumer.offsetsForTimes(
+                    Map.of(partition, Instant.parse(fromTimestamp).toEpochMilli())).get(partition);
+            return found != null ? found.offset() : end;
+        }
+        return Math.max(consumer.beginningOffsets(List.of(partition)).get(partition), fromOffset);
+    }
+
+    /**
+     * Folds the record into its games; a MatchHead snapshot (JSON or Avro) updates every game it lists.
+     *
+     * @return false if the record is neither a decodable MatchResult nor a MatchHead with games
+     */
+    boolean accumulate(Map<String, GameState> games, ConsumerRecord<String, byte[]> record) {
+        List<MatchResult> results;
+        try {
+            results = valueDecoder.decodeResults(record);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        boolean applied = false;
+        for (MatchResult result : results) {
+            if (result.getId() == null) {
+                continue;
+            }
+            Update update = new Update(result, record.timestamp(), record.offset());
+            // compute() holds the key's bin, so concurrent readers never touch one GameState together
+            games.compute(result.getId() + ":" + result.getGameNumber(), (key, state) -> {
+                GameState game = state != null ? state : new GameState();
+                game.apply(record.topic(), update);
+                return game;
+            });
+            applied = true;
+        }
+        return applied;
+    }
+
+    private int load(Collection<GameState> games) {
+        Integer rows = transactionTemplate.execute(status -> jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            if (!connection.isWrapperFor(PGConnection.class)) {
+                List<Object[]> batchArgs = new ArrayList<>(games.size());
+                for (GameState game : games) {
+                    batchArgs.add(game.row());
+                }
+                jdbcTemplate.batchUpdate(sql.upsertLatest(), batchArgs);
+                return batchArgs.size();
+            }
+            return copyAndMerge(connection, games);
+        }));
+        return rows != null ? rows : 0;
+    }
+
+    private static int copyAndMerge(Connection connection, Collection<GameState> games) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGING_SQL);
+        }
+        PGCopyOutputStream copy = new PGCopyOutputStream(connection.unwrap(PGConnection.class), COPY_STAGING_SQL, 1 << 16);
+        long copied;
+        try {
+            Writer writer = new OutputStreamWriter(copy, StandardCharsets.UTF_8);
+            for (GameState game : games) {
+                writeCsvRow(writer, game.row());
+            }
+            writer.flush();
+            copied = copy.endCopy();
+        } catch (IOException e) {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+            throw new SQLException("COPY into match_results_replay failed", e);
+        }
+        try (Statement statement = connection.createStatement()) {
+            int merged = statement.executeUpdate(MERGE_STAGING_SQL);
+            logger.debug("Copied {} rows into match_results_replay, merged {}", copied, merged);
+            return merged;
+        }
+    }
+
+    /**
+     * One row in PostgreSQL's CSV COPY format: strings quoted (so an empty string stays distinct
+     * from NULL, which is an unquoted empty field), timestamps in ISO format.
+     */
+    static void writeCsvRow(Appendable out, Object[] row) throws IOException {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            Object value = row[i];
+            if (value instanceof String text) {
+                out.append('"').append(text.replace("\"", "\"\"")).append('"');
+            } else if (value instanceof Timestamp timestamp) {
+                out.append(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(timestamp.toLocalDateTime()));
+            } else if (value != null) {
+                out.append(value.toString());
+            }
+        }
+        out.append('\n');
+    }
+
+    private record Update(MatchResult result, long timestamp, long offset) {
+        boolean isBefore(Update other) {
+            return timestamp < other.timestamp || (timestamp == other.timestamp && offset < other.offset);
+        }
+    }
+
+    /**
+     * What the three writer statements leave in one match_results row, from the few records that
+     * decide it: the first record of any topic inserts the row (new-game never does more), the
+     * newest thomas-cup-matches record overwrites every column and the newest update-score record
+     * overwrites the score columns.
+     */
+    static final class GameState {
+        private Update first;
+        private Update latestFull;
+        private Update latestScore;
+
+        void apply(String topic, Update update) {
+            if (first == null || update.isBefore(first)) {
+                first = update;
+            }
+            if (MATCHES_TOPIC.equals(topic) && (latestFull == null || latestFull.isBefore(update))) {
+                latestFull = update;
+            } else if (UPDATE_SCORE_TOPIC.equals(topic) && (latestScore == null || latestScore.isBefore(update))) {
+                latestScore = update;
+            }
+        }
+
+        /**
+         * @return bind parameters in {@link MatchResultDbConsumer#toSqlArgs} column order
+         */
+        Object[] row() {
+            MatchResult teams = (latestFull != null ? latestFull : first).result();
+            Update newestScore = latestScore == null || (latestFull != null && latestScore.isBefore(latestFull))
+                    ? latestFull : latestScore;
+            MatchResult score = (newestScore != null ? newestScore : first).result();
+            MatchResult key = first.result();
+            return new Object[] {
+                    key.getId(),
+                    teams.getTeamA(),
+                    teams.getTeamB(),
+                    score.getTeamAScore(),
+                    score.getTeamBScore(),
+                    score.getWinner(),
+                    score.getMatchDateTime() != null ? Timestamp.valueOf(score.getMatchDateTime()) : null,
+                    key.getGameNumber()
+            };
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.thomascup.service;
+
+/**
+ * The three match_results write statements of the DB writers, per database. PostgreSQL uses
+ * {@code INSERT ... ON CONFLICT}; H2 (tests, the offline pipeline benchmark) has no
+ * {@code ON CONFLICT DO UPDATE} even in PostgreSQL mode, so it gets equivalent {@code MERGE}
+ * statements with the same bind parameters ({@link MatchResultDbConsumer#toSqlArgs}).
+ */
+public record MatchResultSql(String upsertLatest, String insertNewGame, String upsertScore) {
+    public static final MatchResultSql POSTGRESQL = new MatchResultSql(
+            MatchResultDbConsumer.UPSERT_LATEST_SQL,
+            MatchResultDbConsumer.INSERT_NEW_GAME_SQL,
+            MatchResultDbConsumer.UPSERT_SCORE_SQL);
+
+    private static final String H2_SOURCE = "MERGE INTO match_results t USING (VALUES (CAST(? AS VARCHAR), CAST(? AS VARCHAR), " +
+            "CAST(? AS VARCHAR), CAST(? AS INT), CAST(? AS INT), CAST(? AS VARCHAR), CAST(? AS TIMESTAMP), CAST(? AS INT))) " +
+            "s(id, teamA, teamB, teamAScore, teamBScore, winner, matchDateTime, gameNumber) " +
+            "ON t.id = s.id AND t.gameNumber = s.gameNumber ";
+    private static final String H2_INSERT = "WHEN NOT MATCHED THEN INSERT (id, teamA, teamB, teamAScore, teamBScore, winner, matchDateTime, gameNumber) " +
+            "VALUES (s.id, s.teamA, s.teamB, s.teamAScore, s.teamBScore, s.winner, s.matchDateTime, s.gameNumber)";
+
+    public static final MatchResultSql H2 = new MatchResultSql(
+            H2_SOURCE + "WHEN MATCHED THEN UPDATE SET teamA = s.teamA, teamB = s.teamB, teamAScore = s.teamAScore, " +
+                    "teamBScore = s.teamBScore, winner = s.winner, matchDateTime = s.matchDateTime " + H2_INSERT,
+            H2_SOURCE + H2_INSERT,
+            H2_SOURCE + "WHEN MATCHED THEN UPDATE SET teamAScore = s.teamAScore, teamBScore = s.teamBScore, " +
+                    "winner = s.winner, matchDateTime = s.matchDateTime " + H2_INSERT);
+
+    /**
+     * @param databaseProductName as reported by {@link java.sql.DatabaseMetaData#getDatabaseProductName()}
+     */
+    public static MatchResultSql forDatabase(String databaseProductName) {
+        return "H2".equalsIgnoreCase(databaseProductName) ? H2 : POSTGRESQL;
+    }
+}
@@ -0,0 +1,38 @@
+package com.thomascup.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Meters shared by several stages of the ingest pipeline, so every caller registers them with
+ * the same name, tags and histogram settings (Prometheus rejects one name with differing tags).
+ * Kafka client metrics (consumer lag per partition) and send-to-ack timers come from the
+ * factories in KafkaConsumerConfig/KafkaProducerConfig.
+ */
+public final class PipelineMetrics {
+
+    private PipelineMetrics() {
+    }
+
+    /**
+     * Time of one match_results statement, or one JDBC batch in batch mode, per listener id.
+     */
+    public static Timer upsertTimer(MeterRegistry registry, String listenerId, String outcome) {
+        return Timer.builder("thomascup.db.upsert")
+                .description("Time of one match_results upsert statement or JDBC batch")
+                .tags("listener", listenerId, "outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Kafka values a listener, or its error handler, could not decode.
+     */
+    public static Counter deserializationFailures(MeterRegistry registry, String topic, String consumer) {
+        return Counter.builder("thomascup.kafka.deserialization.failures")
+                .description("Kafka record values that could not be decoded")
+                .tags("topic", topic, "consumer", consumer)
+                .register(registry);
+    }
+}
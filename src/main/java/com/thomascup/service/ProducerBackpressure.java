@@ -0,0 +1,85 @@
+package com.thomascup.service;
+
+import com.thomascup.model.MatchResult;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control for asynchronous ingest.
+ * <p>
+ * {@code KafkaTemplate.send} blocks the calling thread for up to {@code max.block.ms} once the
+ * producer's record accumulator is full. Rather than letting request threads pile up there,
+ * requests are rejected early when too many sends are outstanding (429) or when the
+ * accumulator is nearly exhausted (503).
+ */
+@Component
+public class ProducerBackpressure {
+    public enum Admission { ACCEPTED, TOO_MANY_REQUESTS, PRODUCER_SATURATED }
+
+    private static final long BUFFER_SAMPLE_INTERVAL_NANOS = 50_000_000L;
+
+    private final KafkaTemplate<String, MatchResult> kafkaTemplate;
+    private final int maxInFlight;
+    private final double maxBufferUtilisation;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double bufferUtilisation;
+    private volatile long bufferSampledAt = System.nanoTime() - BUFFER_SAMPLE_INTERVAL_NANOS;
+
+    public ProducerBackpressure(KafkaTemplate<String, MatchResult> kafkaTemplate,
+                                @Value("${thomascup.api.async.max-in-flight:10000}") int maxInFlight,
+                                @Value("${thomascup.api.async.max-buffer-utilisation:0.8}") double maxBufferUtilisation) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.maxInFlight = maxInFlight;
+        this.maxBufferUtilisation = maxBufferUtilisation;
+    }
+
+    /**
+     * Callers that get {@link Admission#ACCEPTED} must call {@link #release()} once the send completes.
+     */
+    public Admission tryAcquire() {
+        if (bufferUtilisation() >= maxBufferUtilisation) {
+            return Admission.PRODUCER_SATURATED;
+        }
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            return Admission.TOO_MANY_REQUESTS;
+        }
+        return Admission.ACCEPTED;
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private double bufferUtilisation() {
+        long now = System.nanoTime();
+        if (now - bufferSampledAt >= BUFFER_SAMPLE_INTERVAL_NANOS) {
+            bufferSampledAt = now;
+            double total = 0;
+            double available = 0;
+            for (Map.Entry<MetricName, ? extends Metric> metric : kafkaTemplate.metrics().entrySet()) {
+                if (!"producer-metrics".equals(metric.getKey().group())) {
+                    continue;
+                }
+                if ("buffer-total-bytes".equals(metric.getKey().name())) {
+                    total = ((Number) metric.getValue().metricValue()).doubleValue();
+                } else if ("buffer-available-bytes".equals(metric.getKey().name())) {
+                    available = ((Number) metric.getValue().metricValue()).doubleValue();
+                }
+            }
+            bufferUtilisation = total > 0 ? 1.0 - available / total : 0.0;
+        }
+        return bufferUtilisation;
+    }
+}
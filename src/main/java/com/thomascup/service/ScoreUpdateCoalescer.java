@@ -0,0 +1,51 @@
+package com.thomascup.service;
+
+import com.thomascup.model.MatchResult;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Last-write-wins reduction of a poll of score updates.
+ * <p>
+ * Only the newest update per (id, gameNumber) survives the {@code ON CONFLICT ... DO UPDATE}
+ * anyway, so all older ones in the same poll can be dropped before they reach the database.
+ * "Newest" is decided by matchDateTime, falling back to poll order (i.e. offset order, since
+ * records are keyed by id:gameNumber and therefore share a partition).
+ */
+final class ScoreUpdateCoalescer {
+
+    private ScoreUpdateCoalescer() {
+    }
+
+    /**
+     * @return indexes into {@code results} of the updates to write, in ascending (poll) order
+     */
+    static int[] newestPerGame(List<MatchResult> results) {
+        Map<String, Integer> newest = new HashMap<>();
+        for (int i = 0; i < results.size(); i++) {
+            MatchResult candidate = results.get(i);
+            String key = candidate.getId() + ":" + candidate.getGameNumber();
+            Integer current = newest.get(key);
+            if (current == null || !isOlder(candidate, results.get(current))) {
+                newest.put(key, i);
+            }
+        }
+        int[] survivors = new int[newest.size()];
+        int n = 0;
+        for (int index : newest.values()) {
+            survivors[n++] = index;
+        }
+        Arrays.sort(survivors);
+        return survivors;
+    }
+
+    private static boolean isOlder(MatchResult candidate, MatchResult current) {
+        if (candidate.getMatchDateTime() == null || current.getMatchDateTime() == null) {
+            return false; // Cannot compare timestamps, the later offset wins
+        }
+        return candidate.getMatchDateTime().isBefore(current.getMatchDateTime());
+    }
+}
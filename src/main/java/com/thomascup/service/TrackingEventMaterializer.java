@@ -0,0 +1,60 @@
+package com.thomascup.service;
+
+import com.thomascup.model.TrackingEvent;
+import com.thomascup.repository.EventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies the {@code tracking-events} topic to the local {@link EventRepository}. Saves are
+ * idempotent, so events this replica already stored while publishing, or replays after a
+ * restart, are no-ops.
+ * <p>
+ * Every replica uses its own consumer group ({@code thomascup.events.kafka.group-id}, stable
+ * across restarts of the same replica) and seeks to the beginning on assignment, so the
+ * in-memory repository is rebuilt from the retained events on each start.
+ */
+@Service
+@ConditionalOnProperty(name = "thomascup.events.kafka.enabled", havingValue = "true")
+public class TrackingEventMaterializer implements ConsumerSeekAware {
+    private static final Logger logger = LoggerFactory.getLogger(TrackingEventMaterializer.class);
+
+    private final EventRepository eventRepository;
+    private final MeterRegistry meterRegistry;
+
+    public TrackingEventMaterializer(EventRepository eventRepository, MeterRegistry meterRegistry) {
+        this.eventRepository = eventRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @KafkaListener(topics = "${thomascup.events.kafka.topic:tracking-events}", id = "tracking-events-materializer",
+            groupId = "${thomascup.events.kafka.group-id:tracking-events-${HOSTNAME:local}}",
+            containerFactory = "trackingEventKafkaListenerContainerFactory")
+    public void onEvents(List<ConsumerRecord<String, TrackingEvent>> records) {
+        for (ConsumerRecord<String, TrackingEvent> record : records) {
+            TrackingEvent event = record.value();
+            if (event == null || event.trackingId() == null || event.timestamp() == null) {
+                // Undecodable or incomplete values are skipped rather than blocking the partition
+                logger.warn("Skipping tracking event at partition {} offset {}", record.partition(), record.offset());
+                PipelineMetrics.deserializationFailures(meterRegistry, record.topic(), "tracking-events").increment();
+                continue;
+            }
+            eventRepository.saveEvent(event);
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        callback.seekToBeginning(assignments.keySet());
+    }
+}
@@ -0,0 +1,35 @@
+package com.thomascup.service;
+
+import com.thomascup.model.TrackingEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Publishes accepted tracking events keyed by trackingId, so all events of a trackingId land on
+ * one partition and are materialized in order by {@link TrackingEventMaterializer} on every
+ * replica.
+ */
+@Service
+@ConditionalOnProperty(name = "thomascup.events.kafka.enabled", havingValue = "true")
+public class TrackingEventPublisher {
+    private final KafkaTemplate<String, TrackingEvent> kafkaTemplate;
+    private final String topic;
+
+    public TrackingEventPublisher(KafkaTemplate<String, TrackingEvent> trackingEventKafkaTemplate,
+                                  @Value("${thomascup.events.kafka.topic:tracking-events}") String topic) {
+        this.kafkaTemplate = trackingEventKafkaTemplate;
+        this.topic = topic;
+    }
+
+    /**
+     * @return the send future; completes once the batch holding the event is acknowledged
+     */
+    public CompletableFuture<SendResult<String, TrackingEvent>> publish(TrackingEvent event) {
+        return kafkaTemplate.send(topic, event.trackingId(), event);
+    }
+}
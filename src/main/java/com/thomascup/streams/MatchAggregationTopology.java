@@ -0,0 +1,113 @@
+package com.thomascup.streams;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thomascup.mapper.KafkaValueDecoder;
+import com.thomascup.model.MatchAggregate;
+import com.thomascup.model.MatchResult;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Grouped;
+import org.apache.kafka.streams.kstream.KTable;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.support.serializer.JsonSerde;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.List;
+
+/**
+ * Folds game score updates from {@code thomas-cup-matches} and {@code update-score} into one
+ * {@link MatchAggregate} per match id.
+ * <p>
+ * Records are re-keyed by match id (the producers key by {@code id:gameNumber}), aggregated into
+ * the persistent store {@link #STORE_NAME} that backs interactive queries, and every change is
+ * published to {@link #OUTPUT_TOPIC}. A MatchHead snapshot on the shared topic (JSON or Avro) counts
+ * as one result per game it lists; any other value that is not a {@link MatchResult} is skipped.
+ */
+public final class MatchAggregationTopology {
+    private static final Logger log = LoggerFactory.getLogger(MatchAggregationTopology.class);
+
+    public static final String STORE_NAME = "match-aggregates-store";
+    public static final String OUTPUT_TOPIC = "match-aggregates";
+    static final List<String> INPUT_TOPICS = List.of("thomas-cup-matches", "update-score");
+
+    private MatchAggregationTopology() {
+    }
+
+    public static KTable<String, MatchAggregate> build(StreamsBuilder builder, Serde<List<MatchResult>> inputSerde,
+                                                       Serde<MatchResult> resultSerde, Serde<MatchAggregate> aggregateSerde) {
+        KTable<String, MatchAggregate> aggregates = builder
+                .stream(INPUT_TOPICS, Consumed.with(Serdes.String(), inputSerde))
+                .flatMapValues(results -> results)
+                .filter((key, result) -> result != null && result.getId() != null)
+                .selectKey((key, result) -> result.getId())
+                .groupByKey(Grouped.with("match-results-by-id", Serdes.String(), resultSerde))
+                .aggregate(MatchAggregate::new,
+                        (id, result, aggregate) -> aggregate.apply(result),
+                        Materialized.<String, MatchAggregate, KeyValueStore<Bytes, byte[]>>as(STORE_NAME)
+                                .withKeySerde(Serdes.String())
+                                .withValueSerde(aggregateSerde));
+        aggregates.toStream().to(OUTPUT_TOPIC, Produced.with(Serdes.String(), aggregateSerde));
+        return aggregates;
+    }
+
+    /**
+     * Writes plain JSON and reads through the shared {@link KafkaValueDecoder}, so the
+     * double-encoded values some producers emit are accepted too.
+     */
+    public static Serde<MatchResult> matchResultSerde(KafkaValueDecoder decoder, ObjectMapper objectMapper) {
+        JsonSerializer<MatchResult> serializer = new JsonSerializer<MatchResult>(objectMapper).noTypeInfo();
+        Deserializer<MatchResult> deserializer = (topic, data) -> {
+            if (data == null) {
+                return null;
+            }
+            try {
+                return decoder.decode(data, MatchResult.class);
+            } catch (IllegalArgumentException e) {
+                log.debug("Skipping non-MatchResult value on topic '{}': {}", topic, e.getMessage());
+                return null;
+            }
+        };
+        return Serdes.serdeFrom(serializer, deserializer);
+    }
+
+    /**
+     * Serde of the input topics: the deserializer sees the record headers, so Avro MatchHead values
+     * are read too. Values that decode to nothing yield an empty list.
+     */
+    public static Serde<List<MatchResult>> matchResultsSerde(KafkaValueDecoder decoder, ObjectMapper objectMapper) {
+        JsonSerializer<List<MatchResult>> serializer = new JsonSerializer<List<MatchResult>>(objectMapper).noTypeInfo();
+        Deserializer<List<MatchResult>> deserializer = new Deserializer<>() {
+            @Override
+            public List<MatchResult> deserialize(String topic, byte[] data) {
+                return deserialize(topic, null, data);
+            }
+
+            @Override
+            public List<MatchResult> deserialize(String topic, Headers headers, byte[] data) {
+                if (data == null) {
+                    return List.of();
+                }
+                try {
+                    return decoder.decodeResults(topic, headers, data);
+                } catch (IllegalArgumentException e) {
+                    log.debug("Skipping undecodable value on topic '{}': {}", topic, e.getMessage());
+                    return List.of();
+                }
+            }
+        };
+        return Serdes.serdeFrom(serializer, deserializer);
+    }
+
+    public static Serde<MatchAggregate> matchAggregateSerde(ObjectMapper objectMapper) {
+        return new JsonSerde<>(MatchAggregate.class, objectMapper).noTypeInfo().ignoreTypeHeaders();
+    }
+}
@@ -0,0 +1,140 @@
+package com.thomascup.tracing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.record.TimestampType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns the trace headers of sampled records into hop latencies once a consumer has written
+ * them to the database:
+ * <ul>
+ *   <li>{@code ingest-to-send}: request received until {@code send()} (validation, dedup)</li>
+ *   <li>{@code send-to-poll}: {@code send()} until the listener got the record; with topics on
+ *       {@code LogAppendTime} this starts at the broker append instead ({@code append-to-poll})</li>
+ *   <li>{@code poll-to-db}: listener start until the row (or the poll's JDBC batch) was written</li>
+ *   <li>{@code ingest-to-db}: the whole path</li>
+ * </ul>
+ * as {@code thomascup.trace.hop} histograms per topic. The slowest traces of the last one to two
+ * windows are kept for the {@code slowtraces} actuator endpoint. Records without headers (not
+ * sampled, or produced elsewhere) are ignored. Times are wall clock across hosts, so small
+ * negative hops from clock skew are clamped to zero.
+ */
+@Component
+public class HopLatencyRecorder {
+
+    public record Trace(String topic, int partition, long offset, String key, Instant ingestedAt,
+                        long ingestToSendMs, long sendToPollMs, long pollToDbMs, long totalMs) {
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final int slowTraceCount;
+    private final long windowMillis;
+    private final Clock clock;
+    private PriorityQueue<Trace> currentWindow = slowestFirstOut();
+    private List<Trace> previousWindow = List.of();
+    private long windowEnd;
+
+    @Autowired
+    public HopLatencyRecorder(MeterRegistry meterRegistry,
+                              @Value("${thomascup.tracing.slow-traces:50}") int slowTraceCount,
+                              @Value("${thomascup.tracing.slow-window:PT5M}") Duration window) {
+        this(meterRegistry, slowTraceCount, window, Clock.systemUTC());
+    }
+
+    HopLatencyRecorder(MeterRegistry meterRegistry, int slowTraceCount, Duration window, Clock clock) {
+        this.meterRegistry = meterRegistry;
+        this.slowTraceCount = slowTraceCount;
+        this.windowMillis = window.toMillis();
+        this.clock = clock;
+        this.windowEnd = clock.millis() + windowMillis;
+    }
+
+    /**
+     * @param polledAtMillis  when the listener started on the record (or its poll)
+     * @param writtenAtMillis when the record's database write completed
+     */
+    public void record(ConsumerRecord<?, ?> record, long polledAtMillis, long writtenAtMillis) {
+        Header ingestHeader = record.headers().lastHeader(TracingProducerInterceptor.INGEST_HEADER);
+        Header sendHeader = record.headers().lastHeader(TracingProducerInterceptor.SEND_HEADER);
+        if (ingestHeader == null || sendHeader == null) {
+            return;
+        }
+        long ingestedAt = ByteBuffer.wrap(ingestHeader.value()).getLong();
+        long sentAt = ByteBuffer.wrap(sendHeader.value()).getLong();
+        boolean appendTime = record.timestampType() == TimestampType.LOG_APPEND_TIME;
+        long pollStart = appendTime ? record.timestamp() : sentAt;
+
+        long ingestToSend = Math.max(0, sentAt - ingestedAt);
+        long sendToPoll = Math.max(0, polledAtMillis - pollStart);
+        long pollToDb = Math.max(0, writtenAtMillis - polledAtMillis);
+        long total = Math.max(0, writtenAtMillis - ingestedAt);
+        String topic = record.topic();
+        hop("ingest-to-send", topic).record(ingestToSend, TimeUnit.MILLISECONDS);
+        hop(appendTime ? "append-to-poll" : "send-to-poll", topic).record(sendToPoll, TimeUnit.MILLISECONDS);
+        hop("poll-to-db", topic).record(pollToDb, TimeUnit.MILLISECONDS);
+        hop("ingest-to-db", topic).record(total, TimeUnit.MILLISECONDS);
+
+        offer(new Trace(topic, record.partition(), record.offset(), String.valueOf(record.key()),
+                Instant.ofEpochMilli(ingestedAt), ingestToSend, sendToPoll, pollToDb, total));
+    }
+
+    /**
+     * @return the slowest recent traces, slowest first
+     */
+    public synchronized List<Trace> slowest() {
+        rollIfDue();
+        List<Trace> traces = new ArrayList<>(previousWindow);
+        traces.addAll(currentWindow);
+        traces.sort(Comparator.comparingLong(Trace::totalMs).reversed());
+        return traces.size() > slowTraceCount ? List.copyOf(traces.subList(0, slowTraceCount)) : traces;
+    }
+
+    private synchronized void offer(Trace trace) {
+        rollIfDue();
+        if (currentWindow.size() < slowTraceCount) {
+            currentWindow.add(trace);
+        } else if (currentWindow.peek().totalMs() < trace.totalMs()) {
+            currentWindow.poll();
+            currentWindow.add(trace);
+        }
+    }
+
+    private void rollIfDue() {
+        long now = clock.millis();
+        if (now < windowEnd) {
+            return;
+        }
+        // An idle period longer than a window leaves nothing recent to show
+        previousWindow = now < windowEnd + windowMillis ? List.copyOf(currentWindow) : List.of();
+        currentWindow = slowestFirstOut();
+        windowEnd = now + windowMillis;
+    }
+
+    private Timer hop(String hop, String topic) {
+        return Timer.builder("thomascup.trace.hop")
+                .description("Latency of one hop of sampled records from REST ingest to the database")
+                .tags("hop", hop, "topic", topic)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static PriorityQueue<Trace> slowestFirstOut() {
+        // Min-heap on total latency: the fastest kept trace is evicted first
+        return new PriorityQueue<>(Comparator.comparingLong(Trace::totalMs));
+    }
+}
@@ -0,0 +1,38 @@
+package com.thomascup.tracing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Remembers when the current request was received, for {@link TracingProducerInterceptor} to
+ * stamp on records sent while handling it.
+ */
+@Component
+public class IngestTimestampFilter extends OncePerRequestFilter {
+    private static final ThreadLocal<long[]> INGEST_MILLIS = ThreadLocal.withInitial(() -> new long[1]);
+
+    /**
+     * @return epoch millis at which the current request arrived, or 0 outside a request
+     */
+    public static long currentIngestMillis() {
+        return INGEST_MILLIS.get()[0];
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long[] ingest = INGEST_MILLIS.get();
+        ingest[0] = System.currentTimeMillis();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ingest[0] = 0;
+        }
+    }
+}
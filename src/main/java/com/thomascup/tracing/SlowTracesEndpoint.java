@@ -0,0 +1,26 @@
+package com.thomascup.tracing;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code GET /actuator/slowtraces}: the slowest recently traced records with their hop
+ * breakdown, see {@link HopLatencyRecorder}.
+ */
+@Component
+@Endpoint(id = "slowtraces")
+public class SlowTracesEndpoint {
+    private final HopLatencyRecorder hopLatencyRecorder;
+
+    public SlowTracesEndpoint(HopLatencyRecorder hopLatencyRecorder) {
+        this.hopLatencyRecorder = hopLatencyRecorder;
+    }
+
+    @ReadOperation
+    public List<HopLatencyRecorder.Trace> slowTraces() {
+        return hopLatencyRecorder.slowest();
+    }
+}
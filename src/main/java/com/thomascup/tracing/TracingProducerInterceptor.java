@@ -0,0 +1,59 @@
+package com.thomascup.tracing;
+
+import org.apache.kafka.clients.producer.ProducerInterceptor;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stamps a sample of produced records with {@link #INGEST_HEADER} (when the HTTP request that
+ * led to the send was received, see {@link IngestTimestampFilter}) and {@link #SEND_HEADER}
+ * (when send() was called), both epoch millis as 8 byte big-endian longs. Consumers turn them
+ * into hop latencies with {@link HopLatencyRecorder}; unsampled records carry no headers.
+ * <p>
+ * Registered through {@code interceptor.classes}; the sample rate comes from the producer
+ * config under {@link #SAMPLE_RATE_CONFIG}.
+ */
+public class TracingProducerInterceptor<K, V> implements ProducerInterceptor<K, V> {
+    public static final String SAMPLE_RATE_CONFIG = "thomascup.tracing.sample-rate";
+    public static final String INGEST_HEADER = "thomascup-ingest-ts";
+    public static final String SEND_HEADER = "thomascup-send-ts";
+
+    private double sampleRate = 0.0;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        Object rate = configs.get(SAMPLE_RATE_CONFIG);
+        if (rate != null) {
+            sampleRate = Double.parseDouble(rate.toString());
+        }
+    }
+
+    @Override
+    public ProducerRecord<K, V> onSend(ProducerRecord<K, V> record) {
+        if (sampleRate <= 0 || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return record;
+        }
+        // Runs on the caller's thread inside send(), so the request's ingest time is visible
+        long now = System.currentTimeMillis();
+        long ingestedAt = IngestTimestampFilter.currentIngestMillis();
+        record.headers().add(INGEST_HEADER, toBytes(ingestedAt > 0 ? ingestedAt : now));
+        record.headers().add(SEND_HEADER, toBytes(now));
+        return record;
+    }
+
+    @Override
+    public void onAcknowledgement(RecordMetadata metadata, Exception exception) {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    static byte[] toBytes(long value) {
+        return ByteBuffer.allocate(Long.BYTES).putLong(value).array();
+    }
+}
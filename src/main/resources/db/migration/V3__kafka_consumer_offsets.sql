@@ -0,0 +1,11 @@
+-- Thomas Cup Kafka - consumer positions stored with the rows they cover
+-- Written by the DB writers when thomascup.db-writer.offsets.store=database: the next offset to
+-- read per (group, topic, partition), updated in the same transaction as the match_results rows
+
+CREATE TABLE kafka_consumer_offsets (
+   groupId VARCHAR NOT NULL,
+   topic VARCHAR NOT NULL,
+   kafkaPartition INT NOT NULL,
+   nextOffset BIGINT NOT NULL,
+   PRIMARY KEY (groupId, topic, kafkaPartition)
+);
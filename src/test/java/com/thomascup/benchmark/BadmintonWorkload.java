@@ -0,0 +1,120 @@
+package com.thomascup.benchmark;
+
+import com.thomascup.model.MatchResult;
+import com.thomascup.model.MatchScores;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic stream of score updates for {@code concurrentMatches} live matches.
+ * <p>
+ * Every match is played rally by rally with real badminton rules (21 points, 15 in game 3,
+ * two point lead, capped at 30, best of three); side A wins a rally with a per-match probability
+ * so matches differ in length. Which match produces the next update follows a Zipf distribution
+ * over the live matches with exponent {@code skew}: 0 is uniform, 1 and above concentrates
+ * traffic on a few hot matches (and so on a few partitions and rows). A finished match is
+ * replaced by a new one in the same slot. Not thread-safe; callers synchronize.
+ */
+class BadmintonWorkload {
+
+    enum Kind { NEW_GAME, UPDATE_SCORE }
+
+    record Update(Kind kind, MatchResult result) {
+    }
+
+    private final SplittableRandom random;
+    private final double[] cumulativeWeights;
+    private final Match[] matches;
+    private long matchSequence;
+
+    BadmintonWorkload(int concurrentMatches, double skew, long seed) {
+        this.random = new SplittableRandom(seed);
+        this.cumulativeWeights = new double[concurrentMatches];
+        double total = 0;
+        for (int i = 0; i < concurrentMatches; i++) {
+            total += 1.0 / Math.pow(i + 1, skew);
+            cumulativeWeights[i] = total;
+        }
+        this.matches = new Match[concurrentMatches];
+        for (int i = 0; i < concurrentMatches; i++) {
+            matches[i] = newMatch();
+        }
+    }
+
+    Update next() {
+        int slot = pickSlot();
+        Match match = matches[slot];
+        Update update = match.next();
+        if (match.finished) {
+            matches[slot] = newMatch();
+        }
+        return update;
+    }
+
+    private int pickSlot() {
+        double target = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+        int index = Arrays.binarySearch(cumulativeWeights, target);
+        return Math.min(index >= 0 ? index : -index - 1, cumulativeWeights.length - 1);
+    }
+
+    private Match newMatch() {
+        long n = ++matchSequence;
+        // Closely matched sides most of the time, the odd one-sided match
+        double pointWinProbability = 0.5 + random.nextDouble(-0.15, 0.15);
+        return new Match("bench-" + n, "Team" + (2 * n), "Team" + (2 * n + 1), pointWinProbability);
+    }
+
+    private final class Match {
+        final String id;
+        final String teamA;
+        final String teamB;
+        final double pointWinProbability;
+        int game = 0;
+        int teamAScore;
+        int teamBScore;
+        int gamesWonA;
+        int gamesWonB;
+        boolean gameStarted;
+        boolean finished;
+
+        Match(String id, String teamA, String teamB, double pointWinProbability) {
+            this.id = id;
+            this.teamA = teamA;
+            this.teamB = teamB;
+            this.pointWinProbability = pointWinProbability;
+        }
+
+        Update next() {
+            if (!gameStarted) {
+                game++;
+                teamAScore = 0;
+                teamBScore = 0;
+                gameStarted = true;
+                return new Update(Kind.NEW_GAME, result(null));
+            }
+            if (random.nextDouble() < pointWinProbability) {
+                teamAScore++;
+            } else {
+                teamBScore++;
+            }
+            String winner = null;
+            if (MatchScores.isGameOver(game, teamAScore, teamBScore)) {
+                winner = teamAScore > teamBScore ? teamA : teamB;
+                if (teamAScore > teamBScore) {
+                    gamesWonA++;
+                } else {
+                    gamesWonB++;
+                }
+                gameStarted = false;
+                finished = gamesWonA == 2 || gamesWonB == 2;
+            }
+            return new Update(Kind.UPDATE_SCORE, result(winner));
+        }
+
+        private MatchResult result(String winner) {
+            return new MatchResult(id, teamA, teamB, teamAScore, teamBScore, winner, LocalDateTime.now(), game);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.thomascup.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * End-to-end throughput of REST ingest -> Kafka -> DB writer -> match_results, fully offline:
+ * embedded Kafka broker, in-memory H2 in PostgreSQL mode with the Flyway schema, real HTTP on a
+ * random port. Not part of the regular test run; start it with
+ * <pre>
+ * mvn test -Pbenchmark [-Dbenchmark.matches=200 -Dbenchmark.skew=1.0 -Dbenchmark.clients=16
+ *                       -Dbenchmark.duration=PT60S -Dthomascup.db-writer.batch.enabled=true]
+ * </pre>
+ * Clients post {@code /api/new-game} and {@code /api/update-score} from {@link BadmintonWorkload}
+ * as fast as responses come back. Latency runs from just before the POST to the row trigger
+ * ({@link RowWriteRecorder}); a warm-up of a fifth of the duration is discarded.
+ */
+@Tag("benchmark")
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "spring.profiles.active=test",
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "spring.datasource.url=jdbc:h2:mem:pipeline-benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.flyway.enabled=true",
+        "spring.flyway.locations=classpath:db/migration,classpath:db/vendor/{vendor}",
+        "spring.flyway.baseline-on-migrate=false",
+        "logging.level.com.thomascup=WARN"
+    }
+)
+@EmbeddedKafka(partitions = 3, topics = {"thomas-cup-matches", "new-game", "update-score"})
+class PipelineThroughputBenchmark {
+    private static final Logger log = LoggerFactory.getLogger(PipelineThroughputBenchmark.class);
+
+    private final int matches = Integer.getInteger("benchmark.matches", 200);
+    private final double skew = Double.parseDouble(System.getProperty("benchmark.skew", "1.0"));
+    private final int clients = Integer.getInteger("benchmark.clients", 16);
+    private final Duration duration = Duration.parse(System.getProperty("benchmark.duration", "PT60S"));
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void installTrigger() {
+        jdbcTemplate.execute(RowWriteRecorder.CREATE_TRIGGER);
+        RowWriteRecorder.reset();
+    }
+
+    @Test
+    void sustainedIngestToRow() throws Exception {
+        BadmintonWorkload workload = new BadmintonWorkload(matches, skew, 42);
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        LongAdder requests = new LongAdder();
+        LongAdder failures = new LongAdder();
+        long warmupEnd = System.nanoTime() + duration.toNanos() / 5;
+        long end = System.nanoTime() + duration.toNanos();
+
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            futures.add(pool.submit(() -> {
+                while (System.nanoTime() < end) {
+                    BadmintonWorkload.Update update;
+                    synchronized (workload) {
+                        update = workload.next();
+                    }
+                    post(http, update, System.nanoTime() >= warmupEnd, requests, failures);
+                }
+                return null;
+            }));
+        }
+        long measureStart = waitUntil(warmupEnd);
+        RowWriteRecorder.latencyMicros.reset();
+        long rowsAtStart = RowWriteRecorder.rowsWritten.sum();
+        long requestsAtStart = requests.sum();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        long measureNanos = System.nanoTime() - measureStart;
+        long measuredRequests = requests.sum() - requestsAtStart;
+
+        // Let the writers drain what is still in Kafka before reading the histogram
+        await().atMost(Duration.ofMinutes(2)).pollInterval(Duration.ofMillis(500))
+                .until(() -> drained(RowWriteRecorder.rowsWritten.sum()));
+        long measuredRows = RowWriteRecorder.rowsWritten.sum() - rowsAtStart;
+        Histogram latency = RowWriteRecorder.latencyMicros.getIntervalHistogram();
+
+        report(measureNanos, measuredRequests, measuredRows, failures.sum(), latency);
+        assertThat(measuredRows).isPositive();
+        assertThat(failures.sum()).isZero();
+    }
+
+    private void post(HttpClient http, BadmintonWorkload.Update update, boolean measured, LongAdder requests, LongAdder failures) {
+        String path = update.kind() == BadmintonWorkload.Kind.NEW_GAME ? "/api/new-game" : "/api/update-score";
+        var result = update.result();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(result)))
+                    .build();
+            if (measured) {
+                RowWriteRecorder.pendingSendNanos.put(RowWriteRecorder.key(result.getId(), result.getGameNumber(),
+                        result.getTeamAScore(), result.getTeamBScore()), System.nanoTime());
+            }
+            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() / 100 != 2) {
+                failures.increment();
+            }
+            requests.increment();
+        } catch (Exception e) {
+            failures.increment();
+        }
+    }
+
+    private long lastRows = -1;
+
+    private boolean drained(long rows) {
+        boolean unchanged = rows == lastRows;
+        lastRows = rows;
+        return unchanged;
+    }
+
+    private static long waitUntil(long nanoTime) throws InterruptedException {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            Thread.sleep(Math.max(1, remaining / 1_000_000));
+        }
+        return System.nanoTime();
+    }
+
+    private void report(long nanos, long requests, long rows, long failures, Histogram latency) {
+        double seconds = nanos / 1e9;
+        ByteArrayOutputStream distribution = new ByteArrayOutputStream();
+        latency.outputPercentileDistribution(new PrintStream(distribution, true, StandardCharsets.UTF_8), 5, 1000.0);
+        log.warn("""
+
+                Pipeline benchmark: {} matches, skew {}, {} clients, {} s measured
+                  requests   {} ({} /s), {} failed
+                  row writes {} ({} /s)
+                  ingest->row latency ms: p50 {} p90 {} p99 {} p99.9 {} max {} (n={})
+                {}""",
+                matches, skew, clients, String.format("%.1f", seconds),
+                requests, String.format("%.0f", requests / seconds), failures,
+                rows, String.format("%.0f", rows / seconds),
+                millis(latency, 50), millis(latency, 90), millis(latency, 99), millis(latency, 99.9),
+                String.format("%.1f", latency.getMaxValue() / 1000.0), latency.getTotalCount(),
+                distribution.toString(StandardCharsets.UTF_8));
+    }
+
+    private static String millis(Histogram histogram, double percentile) {
+        return String.format("%.1f", histogram.getValueAtPercentile(percentile) / 1000.0);
+    }
+}
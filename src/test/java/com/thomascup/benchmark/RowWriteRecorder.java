@@ -0,0 +1,53 @@
+package com.thomascup.benchmark;
+
+import org.HdrHistogram.Recorder;
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * H2 row trigger on match_results that closes the ingest-to-row latency: the harness registers
+ * the send time of every (id, game, score) it posts, and the trigger records the elapsed time
+ * when the DB writer inserts or updates that row version. Updates that never reach a row
+ * (coalesced away in batch mode) simply stay pending.
+ */
+public class RowWriteRecorder implements Trigger {
+    static final String CREATE_TRIGGER = "CREATE TRIGGER IF NOT EXISTS match_results_written AFTER INSERT, UPDATE " +
+            "ON match_results FOR EACH ROW CALL '" + RowWriteRecorder.class.getName() + "'";
+
+    // Column positions in match_results (V1__init_schema.sql)
+    private static final int ID = 0;
+    private static final int TEAM_A_SCORE = 3;
+    private static final int TEAM_B_SCORE = 4;
+    private static final int GAME_NUMBER = 7;
+
+    static final Map<String, Long> pendingSendNanos = new ConcurrentHashMap<>();
+    static final Recorder latencyMicros = new Recorder(3);
+    static final LongAdder rowsWritten = new LongAdder();
+
+    static String key(String id, int gameNumber, int teamAScore, int teamBScore) {
+        return id + ':' + gameNumber + ':' + teamAScore + ':' + teamBScore;
+    }
+
+    static void reset() {
+        pendingSendNanos.clear();
+        latencyMicros.reset();
+        rowsWritten.reset();
+    }
+
+    @Override
+    public void fire(Connection connection, Object[] oldRow, Object[] newRow) {
+        if (newRow == null) {
+            return;
+        }
+        rowsWritten.increment();
+        Long sentAt = pendingSendNanos.remove(key((String) newRow[ID], ((Number) newRow[GAME_NUMBER]).intValue(),
+                ((Number) newRow[TEAM_A_SCORE]).intValue(), ((Number) newRow[TEAM_B_SCORE]).intValue()));
+        if (sentAt != null) {
+            latencyMicros.recordValue((System.nanoTime() - sentAt) / 1_000);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.thomascup.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyCacheTest {
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void idleEntriesExpire() {
+        IdempotencyCache<String, String> cache = new IdempotencyCache<>(64, Duration.ofMinutes(30), clock::get);
+        cache.put("match-1:1", "a");
+        clock.addAndGet(Duration.ofMinutes(29).toNanos());
+        assertEquals("a", cache.get("match-1:1")); // Access refreshes the idle timer
+        clock.addAndGet(Duration.ofMinutes(29).toNanos());
+        assertEquals("a", cache.get("match-1:1"));
+        clock.addAndGet(Duration.ofMinutes(31).toNanos());
+        assertNull(cache.get("match-1:1"));
+    }
+
+    @Test
+    void finishedEntriesUseTheirOwnTtl() {
+        IdempotencyCache<String, String> cache = new IdempotencyCache<>(64, Duration.ofMinutes(30), clock::get);
+        cache.put("live", "a");
+        cache.put("finished", "b", Duration.ofMinutes(2));
+        clock.addAndGet(Duration.ofMinutes(3).toNanos());
+        assertEquals("a", cache.get("live"));
+        assertNull(cache.get("finished"));
+    }
+
+    @Test
+    void finishedEntriesArePurgedBehindLiveOnes() {
+        // Small Integer keys that are equal mod 16 share a segment, and so one LRU order
+        IdempotencyCache<Integer, String> cache = new IdempotencyCache<>(64, Duration.ofMinutes(30), clock::get);
+        cache.put(0, "live");
+        cache.put(16, "finished", Duration.ofMinutes(2));
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+        cache.put(32, "live");
+        assertEquals("finished", cache.get(16)); // Refreshed, so it is now behind both live entries
+        clock.addAndGet(Duration.ofMinutes(3).toNanos());
+
+        cache.put(48, "live");
+        assertEquals(3, cache.size());
+        assertEquals("live", cache.get(0));
+        assertNull(cache.get(16));
+    }
+
+    @Test
+    void sizeIsBounded() {
+        IdempotencyCache<Integer, Integer> cache = new IdempotencyCache<>(160, Duration.ofMinutes(30), clock::get);
+        for (int i = 0; i < 10_000; i++) {
+            cache.put(i, i);
+        }
+        assertTrue(cache.size() <= 160);
+        assertEquals(9_999, cache.get(9_999));
+    }
+
+    @Test
+    void exposesMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        IdempotencyCache<String, String> cache = new IdempotencyCache<>(64, Duration.ofMinutes(30), clock::get);
+        cache.bindTo(registry, "test");
+        cache.put("k", "v");
+        cache.get("k");
+        cache.get("missing");
+        assertEquals(1.0, registry.get("thomascup.dedup.cache.hits").tag("cache", "test").functionCounter().count());
+        assertEquals(1.0, registry.get("thomascup.dedup.cache.misses").tag("cache", "test").functionCounter().count());
+        assertEquals(1.0, registry.get("thomascup.dedup.cache.size").tag("cache", "test").gauge().value());
+    }
+}
@@ -0,0 +1,83 @@
+package com.thomascup.cache;
+
+import com.thomascup.model.MatchScores;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScoreStateTableTest {
+    private final AtomicLong clock = new AtomicLong();
+    private final ScoreStateTable table = new ScoreStateTable(64, Duration.ofMinutes(30), Duration.ofMinutes(2), clock::get);
+
+    @Test
+    void sendsFirstNewerOrChangedState() {
+        long scores = ScoreStateTable.pack(List.of(new MatchScores(1, 10, 8, null)));
+        assertTrue(table.offer("match-1", scores, 1_000));
+        assertFalse(table.offer("match-1", scores, 1_000));
+        assertTrue(table.offer("match-1", scores, 2_000));
+        assertTrue(table.offer("match-1", ScoreStateTable.pack(List.of(new MatchScores(1, 11, 8, null))), 2_000));
+        assertFalse(table.offer("match-1", scores, ScoreStateTable.NO_TIME));
+    }
+
+    @Test
+    void packDistinguishesGamesAndScores() {
+        long game1 = ScoreStateTable.pack(List.of(new MatchScores(1, 21, 19, "TeamA")));
+        long game2 = ScoreStateTable.pack(List.of(new MatchScores(2, 21, 19, "TeamA")));
+        long reversed = ScoreStateTable.pack(List.of(new MatchScores(1, 19, 21, "TeamB")));
+        assertNotEquals(game1, game2);
+        assertNotEquals(game1, reversed);
+        assertEquals(0L, ScoreStateTable.pack(List.of()));
+        assertTrue(ScoreStateTable.isDecided(ScoreStateTable.pack(List.of(
+                new MatchScores(1, 21, 19, "TeamA"), new MatchScores(2, 30, 29, "TeamA")))));
+        assertFalse(ScoreStateTable.isDecided(ScoreStateTable.pack(List.of(
+                new MatchScores(1, 21, 19, "TeamA"), new MatchScores(2, 19, 21, "TeamB")))));
+    }
+
+    @Test
+    void decidedMatchesExpireEarly() {
+        long decided = ScoreStateTable.pack(List.of(new MatchScores(1, 21, 10, "TeamA"), new MatchScores(2, 21, 10, "TeamA")));
+        long live = ScoreStateTable.pack(List.of(new MatchScores(1, 5, 3, null)));
+        table.offer("decided", decided, 1_000);
+        table.offer("live", live, 1_000);
+        clock.addAndGet(Duration.ofMinutes(3).toNanos());
+        assertTrue(table.offer("decided", decided, 1_000));
+        assertFalse(table.offer("live", live, 1_000));
+    }
+
+    @Test
+    void sizeIsBoundedUnderChurn() {
+        long scores = ScoreStateTable.pack(List.of(new MatchScores(1, 1, 0, null)));
+        for (int i = 0; i < 10_000; i++) {
+            clock.incrementAndGet();
+            table.offer("match-" + i, scores, 1_000);
+        }
+        assertTrue(table.size() <= 64);
+        // The most recent matches are still deduplicated after all the evictions and shifts
+        for (int i = 9_997; i < 10_000; i++) {
+            assertFalse(table.offer("match-" + i, scores, 1_000));
+        }
+    }
+
+    @Test
+    void fullSegmentsEvictTheEntryExpiringFirst() {
+        long scores = ScoreStateTable.pack(List.of(new MatchScores(1, 1, 0, null)));
+        for (int i = 0; i < 2_000; i++) {
+            clock.incrementAndGet();
+            table.offer("match-" + i, scores, 1_000);
+            // Newer match times renew the deadlines of the two live matches every round
+            assertTrue(table.offer("live-1", scores, 1_000 + i));
+            assertTrue(table.offer("live-2", scores, 1_000 + i));
+        }
+        assertTrue(table.size() <= 64);
+        assertFalse(table.offer("live-1", scores, 2_999));
+        assertFalse(table.offer("live-2", scores, 2_999));
+        assertTrue(table.offer("match-0", scores, 1_000));
+    }
+}
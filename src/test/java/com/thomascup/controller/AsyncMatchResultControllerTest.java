@@ -0,0 +1,97 @@
+package com.thomascup.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thomascup.model.MatchResult;
+import com.thomascup.service.MatchResultIngestService;
+import com.thomascup.service.ProducerBackpressure;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = AsyncMatchResultController.class, properties = "thomascup.api.async.enabled=true")
+public class AsyncMatchResultControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private MatchResultIngestService ingestService;
+
+    @MockBean
+    private ProducerBackpressure backpressure;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final MatchResult result = new MatchResult("match-1", "TeamA", "TeamB", 10, 8, null, LocalDateTime.now(), 1);
+
+    @Test
+    public void testRespondsWithPartitionAndOffsetOnAck() throws Exception {
+        when(backpressure.tryAcquire()).thenReturn(ProducerBackpressure.Admission.ACCEPTED);
+        RecordMetadata metadata = new RecordMetadata(new TopicPartition("update-score", 2), 41L, 0, 0L, 0, 0);
+        when(ingestService.updateScore(any(MatchResult.class))).thenReturn(CompletableFuture.completedFuture(
+                new SendResult<>(new ProducerRecord<>("update-score", "match-1:1", result), metadata)));
+
+        MvcResult pending = mockMvc.perform(post("/api/update-score")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(result)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(header().string(AsyncMatchResultController.PARTITION_HEADER, "2"))
+                .andExpect(header().string(AsyncMatchResultController.OFFSET_HEADER, "41"))
+                .andExpect(content().string("Score update sent to Kafka"));
+        verify(backpressure).release();
+    }
+
+    @Test
+    public void testShedsLoadWhenProducerIsSaturated() throws Exception {
+        when(backpressure.tryAcquire()).thenReturn(ProducerBackpressure.Admission.PRODUCER_SATURATED);
+
+        MvcResult pending = mockMvc.perform(post("/api/new-game")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(result)))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+        verify(ingestService, never()).startNewGame(any(MatchResult.class));
+    }
+
+    @Test
+    public void testFailedSendIsReportedAs503() throws Exception {
+        when(backpressure.tryAcquire()).thenReturn(ProducerBackpressure.Admission.ACCEPTED);
+        when(ingestService.submitMatchResult(any(MatchResult.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        MvcResult pending = mockMvc.perform(post("/api/match-results")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(result)))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isServiceUnavailable());
+        verify(backpressure).release();
+    }
+}
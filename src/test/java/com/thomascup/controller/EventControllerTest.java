@@ -2,9 +2,12 @@ package com.thomascup.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.thomascup.mapper.FlexibleJsonMapper;
+import com.thomascup.model.EventPage;
 import com.thomascup.model.TrackingEvent;
 import com.thomascup.service.EventService;
+import jakarta.servlet.ServletException;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -13,11 +16,16 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -138,4 +146,88 @@ class EventControllerTest {
                 .andExpect(jsonPath("$.error").value("trackingId is mandatory"));;
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void createEventFlexible_malformedJson_returns400BadRequest() throws Exception {
+        mockMvc.perform(post("/events/flexible")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"trackingId\": \"PN1\", "))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid JSON format"));
+    }
+
+    @Test
+    void createEventFlexible_serviceFailure_isNotReportedAsBadJson() {
+        when(eventService.addEvent(any(TrackingEvent.class))).thenThrow(new IllegalStateException("Event log is not open"));
+
+        // No error page in MockMvc: the exception reaches the servlet, which answers 500
+        ServletException e = assertThrows(ServletException.class, () -> mockMvc.perform(post("/events/flexible")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"trackingId\": \"PN1\", \"status\": \"STARTED\", \"timestamp\": \"2025-01-05T12:30:00Z\"}")));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    @Test
+    void createEventsFlexibleBulk_reportsRejectedElements() throws Exception {
+        String bulkJson = """
+        [
+            {"trackingId": "PN1", "status": "STARTED", "timestamp": "2025-01-05T12:30:00Z"},
+            {"status": "STARTED", "timestamp": "2025-01-05T12:30:00Z"},
+            {"trackingId": "PN3", "status": "STARTED", "timestamp": "2999-01-01T00:00:00Z"}
+        ]
+        """;
+
+        mockMvc.perform(post("/events/flexible/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(bulkJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(1))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.rejections[0].error").value("trackingId is mandatory"))
+                .andExpect(jsonPath("$.rejections[1].error").value("timestamp must be in the past or present"));
+
+        Mockito.verify(eventService).addEvent(new TrackingEvent("PN1", "STARTED", Instant.parse("2025-01-05T12:30:00Z")));
+    }
+
+    @Test
+    void getEvents_returnsPageWithCursor() throws Exception {
+        Instant from = Instant.parse("2025-01-05T12:00:00Z");
+        TrackingEvent event = new TrackingEvent("PN123456789", "STARTED", from);
+        when(eventService.getEvents("PN123456789", from, null, 1, null)).thenReturn(new EventPage(List.of(event), "abc"));
+
+        mockMvc.perform(get("/events/PN123456789").param("from", "2025-01-05T12:00:00Z").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events[0].status").value("STARTED"))
+                .andExpect(jsonPath("$.nextCursor").value("abc"));
+    }
+
+    @Test
+    void getEvents_invalidLimitCursorOrRange_returns400BadRequest() throws Exception {
+        mockMvc.perform(get("/events/PN123456789").param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("limit must be between 1 and 1000"));
+
+        when(eventService.getEvents(eq("PN123456789"), any(), any(), eq(100), eq("bogus")))
+                .thenThrow(new IllegalArgumentException("Invalid cursor"));
+        mockMvc.perform(get("/events/PN123456789").param("cursor", "bogus"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid cursor"));
+
+        mockMvc.perform(get("/events/PN123456789").param("from", "2025-01-05T13:00:00Z").param("to", "2025-01-05T12:00:00Z"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("from must not be after to"));
+    }
+
+    @Test
+    void getLatestEvent_returnsLatestOr404() throws Exception {
+        TrackingEvent event = new TrackingEvent("PN123456789", "DELIVERED", Instant.parse("2025-01-05T12:30:00Z"));
+        when(eventService.getLatestEvent("PN123456789")).thenReturn(Optional.of(event));
+        when(eventService.getLatestEvent("UNKNOWN")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/events/PN123456789/latest"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("DELIVERED"));
+        mockMvc.perform(get("/events/UNKNOWN/latest"))
+                .andExpect(status().isNotFound());
+    }
+}
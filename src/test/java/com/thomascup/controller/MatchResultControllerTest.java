@@ -2,12 +2,14 @@ package com.thomascup.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.thomascup.model.MatchResult;
+import com.thomascup.service.MatchResultIngestService;
 import com.thomascup.service.MatchResultProducer;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.test.web.servlet.MockMvc;
@@ -18,6 +20,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @SuppressWarnings("deprecation")
 @WebMvcTest(MatchResultController.class)
+@Import(MatchResultIngestService.class)
 public class MatchResultControllerTest {
     @Autowired
     private MockMvc mockMvc;
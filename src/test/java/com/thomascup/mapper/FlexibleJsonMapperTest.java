@@ -0,0 +1,145 @@
+package com.thomascup.mapper;
+
+import com.thomascup.model.TrackingEvent;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FlexibleJsonMapperTest {
+    private final FlexibleJsonMapper mapper = new FlexibleJsonMapper();
+
+    enum Priority { LOW, HIGH }
+
+    record Address(String city, int zip) {
+    }
+
+    record Parcel(String id, long weightGrams, double price, boolean fragile, Priority priority,
+                  BigDecimal insured, LocalDate shipDate, Address to) {
+    }
+
+    @Test
+    void bindsTrackingEventWithTrimmedStringsAndEpochMillis() {
+        TrackingEvent event = mapper.mapToRecord(Map.of(
+                "trackingId", "  PN123  ",
+                "status", "STARTED",
+                "timestamp", 1736080200000L), TrackingEvent.class);
+
+        assertEquals("PN123", event.trackingId());
+        assertEquals(Instant.parse("2025-01-05T12:30:00Z"), event.timestamp());
+    }
+
+    @Test
+    void keepsErrorMessages() {
+        assertEquals("status is mandatory", bindError(Map.of("trackingId", "PN1", "timestamp", "2025-01-05T12:30:00Z")));
+        assertEquals("trackingId cannot be empty", bindError(Map.of("trackingId", "  ", "status", "S", "timestamp", "2025-01-05T12:30:00Z")));
+        assertEquals("timestamp must be a valid ISO format timestamp", bindError(Map.of("trackingId", "PN1", "status", "S", "timestamp", "yesterday")));
+        assertEquals("timestamp must be a valid ISO timestamp string or epoch milliseconds",
+                bindError(Map.of("trackingId", "PN1", "status", "S", "timestamp", true)));
+    }
+
+    @Test
+    void bindsNumbersEnumsDatesAndNestedRecords() {
+        Map<String, Object> json = new HashMap<>();
+        json.put("id", "P-1");
+        json.put("weightGrams", "1500");
+        json.put("price", 12.5);
+        json.put("fragile", "TRUE");
+        json.put("priority", "high");
+        json.put("insured", 100);
+        json.put("shipDate", "2025-01-05");
+        json.put("to", Map.of("city", "Aarhus", "zip", 8000));
+
+        Parcel parcel = mapper.mapToRecord(json, Parcel.class);
+
+        assertEquals(1500L, parcel.weightGrams());
+        assertEquals(12.5, parcel.price());
+        assertEquals(true, parcel.fragile());
+        assertSame(Priority.HIGH, parcel.priority());
+        assertEquals(new BigDecimal(100), parcel.insured());
+        assertEquals(LocalDate.of(2025, 1, 5), parcel.shipDate());
+        assertEquals(new Address("Aarhus", 8000), parcel.to());
+
+        json.put("to", Map.of("city", "Aarhus"));
+        assertEquals("to.zip is mandatory",
+                assertThrows(IllegalArgumentException.class, () -> mapper.mapToRecord(json, Parcel.class)).getMessage());
+        json.put("to", Map.of("city", "Aarhus", "zip", 8000));
+        json.put("weightGrams", 1.5);
+        assertEquals("weightGrams must be an integer in range",
+                assertThrows(IllegalArgumentException.class, () -> mapper.mapToRecord(json, Parcel.class)).getMessage());
+    }
+
+    @Test
+    void rejectsNonRecordTypes() {
+        assertThrows(IllegalArgumentException.class, () -> mapper.mapToRecord(Map.of(), String.class));
+    }
+
+    @Test
+    void readsRecordFromTokenStreamSkippingUnknownFields() throws IOException {
+        TrackingEvent event = mapper.readRecord(json("""
+                {"extra": {"deep": [1, 2]}, "trackingId": " PN1 ", "status": "STARTED", "timestamp": "2025-01-05T12:30:00Z"}
+                """), TrackingEvent.class);
+        assertEquals(new TrackingEvent("PN1", "STARTED", Instant.parse("2025-01-05T12:30:00Z")), event);
+
+        Parcel parcel = mapper.readRecord(json("""
+                {"id": "P-1", "weightGrams": 10, "price": "2.5", "fragile": false, "priority": "LOW",
+                 "insured": 1.25, "shipDate": "2025-01-05", "to": {"city": "Aarhus", "zip": "8000"}}
+                """), Parcel.class);
+        assertEquals(new Address("Aarhus", 8000), parcel.to());
+        assertEquals(new BigDecimal("1.25"), parcel.insured());
+
+        assertEquals("timestamp is mandatory", assertThrows(IllegalArgumentException.class,
+                () -> mapper.readRecord(json("{\"trackingId\": \"PN1\", \"status\": \"S\"}"), TrackingEvent.class)).getMessage());
+        assertThrows(IOException.class, () -> mapper.readRecord(json("{\"trackingId\": "), TrackingEvent.class));
+        assertThrows(IOException.class, () -> mapper.readRecord(json("[]"), TrackingEvent.class));
+    }
+
+    @Test
+    void readsRecordsAndReportsRejectionsByPosition() throws IOException {
+        List<TrackingEvent> sink = new ArrayList<>();
+        var result = mapper.readRecords(json("""
+                [{"trackingId": "PN1", "status": "STARTED", "timestamp": 1736080200000},
+                 {"trackingId": "PN2", "status": "", "timestamp": 1736080200000},
+                 42,
+                 {"trackingId": "PN3", "status": "STARTED", "timestamp": "2025-01-05T12:30:00Z"}]
+                """), TrackingEvent.class, sink::add);
+
+        assertEquals(2, result.accepted());
+        assertEquals(2, result.rejected());
+        assertEquals("status cannot be empty", result.rejections().get(0).error());
+        assertEquals(2, result.rejections().get(0).position());
+        assertEquals(3, result.rejections().get(1).position());
+        assertEquals(List.of("PN1", "PN3"), sink.stream().map(TrackingEvent::trackingId).toList());
+
+        var truncated = mapper.readRecords(json("[{\"trackingId\": \"PN1\", \"status\": \"S\", \"timestamp\": 1}, {\"tra"),
+                TrackingEvent.class, e -> { });
+        assertEquals(1, truncated.accepted());
+        assertEquals(2, truncated.rejections().get(0).position());
+
+        var garbageAfterElement = mapper.readRecords(json("[{\"trackingId\": \"PN1\", \"status\": \"S\", \"timestamp\": 1} x"),
+                TrackingEvent.class, e -> { });
+        assertEquals(1, garbageAfterElement.accepted());
+        assertEquals(2, garbageAfterElement.rejections().get(0).position());
+    }
+
+    private static InputStream json(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String bindError(Map<String, Object> json) {
+        return assertThrows(IllegalArgumentException.class, () -> mapper.mapToRecord(json, TrackingEvent.class)).getMessage();
+    }
+}
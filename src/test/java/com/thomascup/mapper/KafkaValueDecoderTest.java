@@ -0,0 +1,88 @@
+package com.thomascup.mapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thomascup.model.MatchHead;
+import com.thomascup.model.MatchResult;
+import com.thomascup.model.MatchScores;
+import com.thomascup.serialization.AvroSchemaRegistry;
+import com.thomascup.serialization.MatchHeadAvroSerializer;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KafkaValueDecoderTest {
+    private static final String JSON = """
+            {"id":"match-1","teamA":"TeamA","teamB":"TeamB","teamAScore":21,"teamBScore":19,
+             "winner":"TeamA","matchDateTime":"2025-06-07T10:00:00","gameNumber":1}""";
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final KafkaValueDecoder decoder = new KafkaValueDecoder(objectMapper, MatchResult.class);
+
+    @Test
+    void typedValueIsReturnedAsIs() {
+        MatchResult result = new MatchResult("match-1", "TeamA", "TeamB", 21, 19, "TeamA", LocalDateTime.now(), 1);
+        assertSame(result, decoder.decode(result, MatchResult.class));
+    }
+
+    @Test
+    void decodesJsonStringAndBytes() {
+        assertDecoded(decoder.decode(JSON, MatchResult.class));
+        assertDecoded(decoder.decode(JSON.getBytes(StandardCharsets.UTF_8), MatchResult.class));
+    }
+
+    @Test
+    void decodesDoubleEncodedJson() throws Exception {
+        String doubleEncoded = objectMapper.writeValueAsString(JSON);
+        assertDecoded(decoder.decode(doubleEncoded, MatchResult.class));
+        assertDecoded(decoder.decode(doubleEncoded.getBytes(StandardCharsets.UTF_8), MatchResult.class));
+    }
+
+    @Test
+    void rejectsInvalidOrUnsupportedValues() {
+        assertThrows(IllegalArgumentException.class, () -> decoder.decode("{not json", MatchResult.class));
+        assertThrows(IllegalArgumentException.class, () -> decoder.decode(42, MatchResult.class));
+        assertThrows(IllegalArgumentException.class, () -> decoder.decode(null, MatchResult.class));
+    }
+
+    @Test
+    void avroMatchHeadIsReadAsOneResultPerGame() {
+        MatchHead head = new MatchHead("match-1", "TeamA", "TeamB", LocalDateTime.of(2025, 6, 7, 10, 0),
+                List.of(new MatchScores(1, 21, 19, "TeamA"), new MatchScores(2, 5, 3, null)));
+        RecordHeaders headers = new RecordHeaders();
+        byte[] avro = new MatchHeadAvroSerializer(new AvroSchemaRegistry()).serialize("thomas-cup-matches", headers, head);
+
+        List<MatchResult> results = decoder.decodeResults("thomas-cup-matches", headers, avro);
+
+        assertEquals(2, results.size());
+        assertDecoded(results.get(0));
+        assertEquals("TeamA", results.get(0).getWinner());
+        assertEquals(2, results.get(1).getGameNumber());
+        assertEquals(5, results.get(1).getTeamAScore());
+        assertEquals(3, results.get(1).getTeamBScore());
+        assertEquals(2, decoder.decodeResults("thomas-cup-matches", null, head).size());
+    }
+
+    @Test
+    void valuesWithoutFingerprintAreOneMatchResult() {
+        List<MatchResult> results = decoder.decodeResults("thomas-cup-matches", new RecordHeaders(), JSON.getBytes(StandardCharsets.UTF_8));
+        assertEquals(1, results.size());
+        assertDecoded(results.get(0));
+
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(AvroSchemaRegistry.FINGERPRINT_HEADER, new byte[8]); // Unknown schema
+        assertThrows(IllegalArgumentException.class, () -> decoder.decodeResults("thomas-cup-matches", headers, new byte[]{1, 2}));
+    }
+
+    private static void assertDecoded(MatchResult result) {
+        assertEquals("match-1", result.getId());
+        assertEquals(21, result.getTeamAScore());
+        assertEquals(LocalDateTime.of(2025, 6, 7, 10, 0), result.getMatchDateTime());
+    }
+}
@@ -0,0 +1,193 @@
+package com.thomascup.repository;
+
+import com.thomascup.model.TrackingEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventLogTest {
+    private static final Instant START = Instant.parse("2025-01-05T12:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void eventsSurviveRestartAcrossSegments() {
+        EventRepository repository = open();
+        for (int i = 0; i < 500; i++) {
+            repository.saveEvent(new TrackingEvent("PN" + (i % 7), "STATUS_" + i, START.plusSeconds(i)));
+        }
+        repository.saveEvent(new TrackingEvent("PN0", "STATUS_0", START)); // Duplicate, not logged
+        repository.close();
+
+        EventRepository recovered = open();
+        assertEquals(72, recovered.getEvents("PN0").size());
+        assertEquals("STATUS_7", recovered.getEvents("PN0").get(1).status());
+        assertEquals(START.plusSeconds(7), recovered.getEvents("PN0").get(1).timestamp());
+        assertEquals(71, recovered.getEvents("PN6").size());
+        recovered.close();
+    }
+
+    @Test
+    void tornTailIsTruncatedAndAppendsContinue() throws IOException {
+        EventRepository repository = open();
+        repository.saveEvent(new TrackingEvent("PN1", "STARTED", START));
+        repository.saveEvent(new TrackingEvent("PN1", "DELIVERED", START.plusSeconds(1)));
+        repository.close();
+
+        // Simulate a crash halfway through the second record: corrupt its payload
+        Path segment = segments().get(0);
+        int second = 8 + EventLog.encode(new TrackingEvent("PN1", "STARTED", START)).length;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42, 42}), second + 12);
+        }
+
+        EventRepository recovered = open();
+        assertEquals(List.of(new TrackingEvent("PN1", "STARTED", START)), recovered.getEvents("PN1"));
+        recovered.saveEvent(new TrackingEvent("PN1", "RETURNED", START.plusSeconds(2)));
+        recovered.close();
+
+        EventRepository again = open();
+        assertEquals(2, again.getEvents("PN1").size());
+        assertEquals("RETURNED", again.getEvents("PN1").get(1).status());
+        again.close();
+    }
+
+    @Test
+    void snapshotBoundsReplayAndDropsOldSegments() throws IOException {
+        EventLog log = new EventLog(directory, 4096, Duration.ofMillis(1), 100);
+        EventRepository repository = new EventRepository(1000, Duration.ofHours(1), System::nanoTime, log, true);
+        repository.recover();
+        for (int i = 0; i < 300; i++) {
+            repository.saveEvent(new TrackingEvent("PN" + (i % 3), "STATUS_" + i, START.plusSeconds(i)));
+        }
+        repository.close();
+        assertEquals(1, listSnapshots().size());
+        // ~100 events fill the first 4 KiB segment, so any snapshot made it redundant
+        assertTrue(segments().stream().noneMatch(path -> path.getFileName().toString().equals("events-00000000000000000000.log")));
+
+        List<TrackingEvent> replayed = new ArrayList<>();
+        EventLog reopened = new EventLog(directory, 4096, Duration.ofMillis(1), 100);
+        reopened.recover(replayed::add);
+        reopened.close();
+        assertEquals(300, replayed.size());
+        assertEquals(300, replayed.stream().distinct().count());
+    }
+
+    @Test
+    void failedFlushIsThrownToWaiters() {
+        AtomicBoolean diskFailing = new AtomicBoolean(true);
+        EventLog log = new EventLog(directory, 4096, Duration.ofMillis(1), Long.MAX_VALUE) {
+            @Override
+            void force(MappedByteBuffer buffer) {
+                if (diskFailing.get()) {
+                    throw new UncheckedIOException(new IOException("disk full"));
+                }
+                super.force(buffer);
+            }
+        };
+        log.recover(event -> { });
+
+        long first = log.append(new TrackingEvent("PN1", "STARTED", START));
+        UncheckedIOException e = assertThrows(UncheckedIOException.class, () -> log.awaitDurable(first));
+        assertEquals("disk full", e.getCause().getMessage());
+
+        diskFailing.set(false);
+        log.awaitDurable(log.append(new TrackingEvent("PN1", "DELIVERED", START.plusSeconds(1))));
+        log.awaitDurable(first);
+        log.close();
+    }
+
+    @Test
+    void failedAppendStoresNothing() {
+        AtomicBoolean appendFailing = new AtomicBoolean(true);
+        EventLog log = new EventLog(directory, 4096, Duration.ofMillis(1), Long.MAX_VALUE) {
+            @Override
+            public long append(TrackingEvent event) {
+                if (appendFailing.get()) {
+                    throw new UncheckedIOException(new IOException("no space for a new segment"));
+                }
+                return super.append(event);
+            }
+        };
+        EventRepository repository = new EventRepository(1000, Duration.ofHours(1), System::nanoTime, log, true);
+        repository.recover();
+        TrackingEvent event = new TrackingEvent("PN1", "STARTED", START);
+
+        assertThrows(UncheckedIOException.class, () -> repository.saveEvent(event));
+        assertTrue(repository.getEvents("PN1").isEmpty());
+        assertTrue(repository.findSaved(event).isEmpty());
+
+        // The retry is a new save, so it reaches the log
+        appendFailing.set(false);
+        repository.saveEvent(event);
+        repository.close();
+        EventRepository recovered = open();
+        assertEquals(List.of(event), recovered.getEvents("PN1"));
+        recovered.close();
+    }
+
+    @Test
+    void retryOfUnflushedEventWaitsForTheFlush() {
+        AtomicBoolean diskFailing = new AtomicBoolean(true);
+        EventLog log = new EventLog(directory, 4096, Duration.ofMillis(1), Long.MAX_VALUE) {
+            @Override
+            void force(MappedByteBuffer buffer) {
+                if (diskFailing.get()) {
+                    throw new UncheckedIOException(new IOException("disk full"));
+                }
+                super.force(buffer);
+            }
+        };
+        EventRepository repository = new EventRepository(1000, Duration.ofHours(1), System::nanoTime, log, true);
+        repository.recover();
+        TrackingEvent event = new TrackingEvent("PN1", "STARTED", START);
+
+        assertThrows(UncheckedIOException.class, () -> repository.saveEvent(event));
+        // Stored but not durable: the duplicate must fail too instead of reporting success
+        assertThrows(UncheckedIOException.class, () -> repository.saveEvent(event));
+
+        diskFailing.set(false);
+        repository.saveEvent(new TrackingEvent("PN2", "STARTED", START)); // Waits for a successful flush
+        assertEquals(event, repository.saveEvent(event));
+        assertEquals(1, repository.getEvents("PN1").size());
+        repository.close();
+    }
+
+    private EventRepository open() {
+        EventLog log = new EventLog(directory, 4096, Duration.ofMillis(1), Long.MAX_VALUE);
+        EventRepository repository = new EventRepository(1000, Duration.ofHours(1), System::nanoTime, log, true);
+        repository.recover();
+        return repository;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("events-")).sorted().toList();
+        }
+    }
+
+    private List<Path> listSnapshots() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("snapshot-")).toList();
+        }
+    }
+}
@@ -1,8 +1,15 @@
 package com.thomascup.repository;
 
+import com.thomascup.model.TrackingEvent;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -29,4 +36,114 @@ class EventRepositoryTest {
         eventRepository.getEvents("123").forEach(e -> System.out.println(e));
         assertEquals(1, eventRepository.getEvents("123").size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void duplicateReturnsStoredInstance() {
+        EventRepository eventRepository = new EventRepository();
+        Instant now = Instant.now();
+        var first = new TrackingEvent("123", "STARTED", now);
+        eventRepository.saveEvent(first);
+        assertSame(first, eventRepository.saveEvent(new TrackingEvent("123", "STARTED", now)));
+    }
+
+    @Test
+    void keepsAtMostMaxEventsPerIdInSaveOrder() {
+        EventRepository eventRepository = new EventRepository(3, Duration.ofHours(1), System::nanoTime);
+        Instant start = Instant.parse("2025-01-05T12:00:00Z");
+        for (int i = 0; i < 5; i++) {
+            eventRepository.saveEvent(new TrackingEvent("123", "STATUS_" + i, start.plusSeconds(i)));
+        }
+        var events = eventRepository.getEvents("123");
+        assertEquals(3, events.size());
+        assertEquals("STATUS_2", events.get(0).status());
+        assertEquals("STATUS_4", events.get(2).status());
+    }
+
+    @Test
+    void idleTrackingIdsExpire() {
+        AtomicLong clock = new AtomicLong();
+        EventRepository eventRepository = new EventRepository(10, Duration.ofMinutes(10), clock::get);
+        eventRepository.saveEvent(new TrackingEvent("old", "STARTED", Instant.now()));
+        clock.addAndGet(Duration.ofMinutes(5).toNanos());
+        eventRepository.saveEvent(new TrackingEvent("recent", "STARTED", Instant.now()));
+
+        clock.addAndGet(Duration.ofMinutes(6).toNanos());
+        assertTrue(eventRepository.getEvents("old").isEmpty());
+        assertEquals(1, eventRepository.getEvents("recent").size());
+
+        // The next write sweeps the expired id out of memory
+        eventRepository.saveEvent(new TrackingEvent("other", "STARTED", Instant.now()));
+        assertEquals(2, eventRepository.trackingIdCount());
+    }
+
+    @Test
+    void concurrentDuplicatesAreStoredOnce() throws InterruptedException {
+        EventRepository eventRepository = new EventRepository();
+        Instant now = Instant.now();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            int status = i % 10;
+            executor.execute(() -> eventRepository.saveEvent(new TrackingEvent("123", "STATUS_" + status, now)));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(10, eventRepository.getEvents("123").size());
+    }
+
+    @Test
+    void latestIsNewestByTimestampNotBySaveOrder() {
+        EventRepository eventRepository = new EventRepository();
+        Instant start = Instant.parse("2025-01-05T12:00:00Z");
+        eventRepository.saveEvent(new TrackingEvent("123", "IN_TRANSIT", start.plusSeconds(60)));
+        eventRepository.saveEvent(new TrackingEvent("123", "STARTED", start)); // Late arrival
+        assertEquals("IN_TRANSIT", eventRepository.getLatest("123").orElseThrow().status());
+        assertTrue(eventRepository.getLatest("unknown").isEmpty());
+    }
+
+    @Test
+    void rangeQueryPagesWithCursor() {
+        EventRepository eventRepository = new EventRepository();
+        Instant start = Instant.parse("2025-01-05T12:00:00Z");
+        for (int i = 9; i >= 0; i--) {
+            eventRepository.saveEvent(new TrackingEvent("123", "STATUS_" + i, start.plusSeconds(i)));
+        }
+
+        var first = eventRepository.getEvents("123", start.plusSeconds(2), start.plusSeconds(8), 4, null);
+        assertEquals(List.of("STATUS_2", "STATUS_3", "STATUS_4", "STATUS_5"), first.events().stream().map(TrackingEvent::status).toList());
+        assertNotNull(first.nextCursor());
+
+        var second = eventRepository.getEvents("123", start.plusSeconds(2), start.plusSeconds(8), 4, first.nextCursor());
+        assertEquals(List.of("STATUS_6", "STATUS_7"), second.events().stream().map(TrackingEvent::status).toList());
+        assertNull(second.nextCursor());
+
+        assertEquals(10, eventRepository.getEvents("123", null, null, 100, null).events().size());
+        assertThrows(IllegalArgumentException.class, () -> eventRepository.getEvents("123", null, null, 10, "not-a-cursor"));
+    }
+
+    @Test
+    void findSavedReturnsTheStoredEqualEvent() {
+        EventRepository eventRepository = new EventRepository();
+        TrackingEvent event = new TrackingEvent("123", "STARTED", Instant.parse("2025-01-05T12:00:00Z"));
+
+        assertTrue(eventRepository.findSaved(event).isEmpty());
+        eventRepository.saveEvent(event);
+        assertEquals(event, eventRepository.findSaved(new TrackingEvent("123", "STARTED", Instant.parse("2025-01-05T12:00:00Z"))).orElseThrow());
+        assertTrue(eventRepository.findSaved(new TrackingEvent("123", "DELIVERED", Instant.parse("2025-01-05T12:00:00Z"))).isEmpty());
+    }
+
+    @Test
+    void invertedRangeIsEmpty() {
+        EventRepository eventRepository = new EventRepository();
+        Instant start = Instant.parse("2025-01-05T12:00:00Z");
+        for (int i = 0; i < 10; i++) {
+            eventRepository.saveEvent(new TrackingEvent("123", "STATUS_" + i, start.plusSeconds(i)));
+        }
+
+        assertTrue(eventRepository.getEvents("123", start.plusSeconds(8), start.plusSeconds(2), 10, null).events().isEmpty());
+        // Cursor of a later page reused with an earlier upper bound
+        var first = eventRepository.getEvents("123", null, null, 6, null);
+        var page = eventRepository.getEvents("123", null, start.plusSeconds(3), 6, first.nextCursor());
+        assertTrue(page.events().isEmpty());
+        assertNull(page.nextCursor());
+    }
+}
@@ -0,0 +1,55 @@
+package com.thomascup.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thomascup.model.MatchHead;
+import com.thomascup.model.MatchScores;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MatchHeadAvroSerdeTest {
+    private final AvroSchemaRegistry registry = new AvroSchemaRegistry();
+    private final MatchHeadAvroSerializer serializer = new MatchHeadAvroSerializer(registry);
+    private final MatchHeadAvroDeserializer deserializer = new MatchHeadAvroDeserializer(registry);
+
+    @Test
+    void roundTripWithFingerprintHeader() {
+        MatchHead head = new MatchHead("match-1", "TeamA", "TeamB", LocalDateTime.of(2025, 6, 7, 10, 0, 5),
+                List.of(new MatchScores(1, 21, 19, "TeamA"), new MatchScores(2, 5, 3, null)));
+        RecordHeaders headers = new RecordHeaders();
+
+        byte[] bytes = serializer.serialize("thomas-cup-matches", headers, head);
+        assertNotNull(headers.lastHeader(AvroSchemaRegistry.FINGERPRINT_HEADER));
+
+        MatchHead decoded = deserializer.deserialize("thomas-cup-matches", headers, bytes);
+        assertEquals("match-1", decoded.getId());
+        assertEquals("TeamA", decoded.getTeamA());
+        assertEquals("TeamB", decoded.getTeamB());
+        assertEquals(head.getMatchDateTime(), decoded.getMatchDateTime());
+        assertEquals(head.getScores(), decoded.getScores());
+    }
+
+    @Test
+    void nullableFieldsSurviveWithoutHeader() {
+        MatchHead head = new MatchHead("match-2", null, null, null, List.of());
+        MatchHead decoded = deserializer.deserialize("thomas-cup-matches", serializer.serialize("thomas-cup-matches", head));
+        assertEquals("match-2", decoded.getId());
+        assertNull(decoded.getMatchDateTime());
+        assertTrue(decoded.getScores().isEmpty());
+    }
+
+    @Test
+    void avroIsSmallerThanJson() throws Exception {
+        MatchHead head = new MatchHead("match-1", "TeamA", "TeamB", LocalDateTime.of(2025, 6, 7, 10, 0),
+                List.of(new MatchScores(1, 21, 19, "TeamA")));
+        byte[] json = new ObjectMapper().findAndRegisterModules().writeValueAsBytes(head);
+        assertTrue(serializer.serialize("thomas-cup-matches", head).length < json.length / 2);
+    }
+}
@@ -0,0 +1,90 @@
+package com.thomascup.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thomascup.model.BulkIngestResult;
+import com.thomascup.model.MatchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BulkMatchResultIngesterTest {
+    @Mock
+    private MatchResultIngestService ingestService;
+
+    private BulkMatchResultIngester ingester;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        ingester = new BulkMatchResultIngester(ingestService, new ObjectMapper().findAndRegisterModules(), 2, 5_000);
+        when(ingestService.updateScore(any(MatchResult.class))).thenReturn(CompletableFuture.completedFuture(null));
+        when(ingestService.startNewGame(any(MatchResult.class))).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    public void testNdjsonLinesAreValidatedIndividually() throws Exception {
+        String ndjson = """
+                {"id":"match-1","teamA":"TeamA","teamB":"TeamB","teamAScore":1,"teamBScore":0,"gameNumber":1}
+                {"id":"match-1","teamA":"TeamA","teamB":"TeamB","teamAScore":25,"teamBScore":0,"gameNumber":1}
+                {"id":"match-1","teamA":"TeamA","teamB":"TeamB","teamAScore":1,"teamBScore":0,"gameNumber":4}
+                {"id":"match-2","teamA":"TeamC","teamB":"TeamD","teamAScore":3,"teamBScore":2,"gameNumber":2}
+                """;
+        BulkIngestResult result = ingester.ingest(stream(ndjson), BulkMatchResultIngester.Target.UPDATE_SCORE);
+
+        assertEquals(2, result.accepted());
+        assertEquals(2, result.rejected());
+        assertEquals(2, result.rejections().get(0).position());
+        assertEquals(3, result.rejections().get(1).position());
+        assertTrue(result.rejections().get(1).error().contains("Game number must be 1, 2, or 3"));
+        verify(ingestService, times(2)).updateScore(any(MatchResult.class));
+    }
+
+    @Test
+    public void testJsonArrayAndFailedSends() throws Exception {
+        when(ingestService.startNewGame(any(MatchResult.class)))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        String array = """
+                [{"id":"match-1","teamA":"TeamA","teamB":"TeamB","gameNumber":1},
+                 {"id":"match-2","teamA":"TeamC","teamB":"TeamD","gameNumber":1}]
+                """;
+        BulkIngestResult result = ingester.ingest(stream(array), BulkMatchResultIngester.Target.NEW_GAME);
+
+        assertEquals(1, result.accepted());
+        assertEquals(1, result.rejected());
+        assertEquals(2, result.rejections().get(0).position());
+        assertTrue(result.rejections().get(0).error().contains("broker down"));
+    }
+
+    @Test
+    public void testMalformedJsonStopsTheStream() throws Exception {
+        String ndjson = """
+                {"id":"match-1","teamA":"TeamA","teamB":"TeamB","gameNumber":1}
+                {"id":"match-2",
+                """;
+        BulkIngestResult result = ingester.ingest(stream(ndjson), BulkMatchResultIngester.Target.NEW_GAME);
+
+        assertEquals(1, result.accepted());
+        assertEquals(1, result.rejected());
+        assertEquals(2, result.rejections().get(0).position());
+        verify(ingestService, never()).updateScore(any(MatchResult.class));
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
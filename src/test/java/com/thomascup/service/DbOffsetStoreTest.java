@@ -0,0 +1,79 @@
+package com.thomascup.service;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class DbOffsetStoreTest {
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private DbOffsetStore store;
+
+    @BeforeEach
+    void setup() {
+        when(jdbcTemplate.getDataSource()).thenReturn(mock(DataSource.class));
+        store = new DbOffsetStore(jdbcTemplate);
+    }
+
+    @Test
+    void movesEachPartitionPastItsLastRecord() {
+        when(jdbcTemplate.update(DbOffsetStore.UPDATE_SQL, 13L, "db-writer-group", "update-score", 0, 10L)).thenReturn(1);
+
+        store.save("db-writer-group", List.of(record(0, 10), record(1, 4), record(0, 12)));
+
+        verify(jdbcTemplate).update(DbOffsetStore.UPDATE_SQL, 13L, "db-writer-group", "update-score", 0, 10L);
+        verify(jdbcTemplate).update(DbOffsetStore.UPDATE_SQL, 5L, "db-writer-group", "update-score", 1, 4L);
+        // Partition 1 had no stored offset yet
+        verify(jdbcTemplate).update(DbOffsetStore.INSERT_SQL, "db-writer-group", "update-score", 1, 5L);
+        verify(jdbcTemplate, never()).update(DbOffsetStore.INSERT_SQL, "db-writer-group", "update-score", 0, 13L);
+    }
+
+    @Test
+    void refusesToMoveAnOffsetAnotherConsumerAdvanced() {
+        when(jdbcTemplate.update(eq(DbOffsetStore.UPDATE_SQL), any(Object[].class))).thenReturn(0);
+        when(jdbcTemplate.update(eq(DbOffsetStore.INSERT_SQL), any(Object[].class))).thenThrow(new DuplicateKeyException("exists"));
+
+        assertThrows(IllegalStateException.class, () -> store.save("db-writer-group", List.of(record(0, 10))));
+    }
+
+    @Test
+    void seeksOnlyPartitionsWithStoredOffsets() throws Exception {
+        ResultSet row = mock(ResultSet.class);
+        when(row.getString("topic")).thenReturn("update-score");
+        when(row.getInt("kafkaPartition")).thenReturn(0);
+        when(row.getLong("nextOffset")).thenReturn(42L);
+        doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(1).processRow(row);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), eq("db-writer-group"));
+        ConsumerSeekCallback callback = mock(ConsumerSeekCallback.class);
+
+        store.seek("db-writer-group", List.of(new TopicPartition("update-score", 0), new TopicPartition("update-score", 1)), callback);
+
+        verify(callback).seek("update-score", 0, 42L);
+        verifyNoMoreInteractions(callback);
+    }
+
+    private static ConsumerRecord<String, Object> record(int partition, long offset) {
+        return new ConsumerRecord<>("update-score", partition, offset, "match-1:1", "{}");
+    }
+}
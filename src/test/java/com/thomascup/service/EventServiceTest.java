@@ -9,6 +9,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -19,6 +21,9 @@ class EventServiceTest {
     @Mock
     private EventRepository eventRepository;
 
+    @Mock
+    private TrackingEventPublisher eventPublisher;
+
     private EventService eventService;
 
     @BeforeEach
@@ -60,4 +65,30 @@ class EventServiceTest {
         assertEquals(event, secondResult);
         verify(eventRepository, times(2)).saveEvent(event);
     }
+
+    @Test
+    void addEvent_withPublisher_storesOnlyAfterAcknowledgement() {
+        TrackingEvent event = new TrackingEvent("PN1", "STARTED", Instant.parse("2025-01-05T12:30:00Z"));
+        EventService kafkaBacked = new EventService(eventRepository, eventPublisher);
+
+        when(eventPublisher.publish(event)).thenReturn(CompletableFuture.completedFuture(null));
+        when(eventRepository.saveEvent(event)).thenReturn(event);
+        assertEquals(event, kafkaBacked.addEvent(event));
+
+        when(eventPublisher.publish(event)).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        assertThrows(IllegalStateException.class, () -> kafkaBacked.addEvent(event));
+        verify(eventRepository, times(1)).saveEvent(event);
+    }
+
+    @Test
+    void addEvent_withPublisher_doesNotPublishStoredDuplicates() {
+        TrackingEvent event = new TrackingEvent("PN1", "STARTED", Instant.parse("2025-01-05T12:30:00Z"));
+        EventService kafkaBacked = new EventService(eventRepository, eventPublisher);
+
+        when(eventRepository.findSaved(event)).thenReturn(Optional.of(event));
+        assertEquals(event, kafkaBacked.addEvent(event));
+
+        verifyNoInteractions(eventPublisher);
+        verify(eventRepository, never()).saveEvent(event);
+    }
 }
@@ -0,0 +1,100 @@
+package com.thomascup.service;
+
+import com.thomascup.model.MatchResult;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class KeyOrderedLanesTest {
+
+    @Test
+    public void testSameGameAlwaysLandsInSameLaneInPollOrder() {
+        List<MatchResult> decoded = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            decoded.add(result("match-" + (i % 5), 1 + (i % 2), i % 22));
+        }
+        int[] positions = new int[decoded.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+
+        try (KeyOrderedLanes lanes = new KeyOrderedLanes("test", 4)) {
+            int[][] split = lanes.split(positions, decoded);
+            assertEquals(4, split.length);
+            int total = 0;
+            for (int lane = 0; lane < split.length; lane++) {
+                for (int j = 0; j < split[lane].length; j++) {
+                    assertEquals(lane, lanes.laneOf(decoded.get(split[lane][j])));
+                    if (j > 0) {
+                        assertTrue(split[lane][j - 1] < split[lane][j]);
+                    }
+                }
+                total += split[lane].length;
+            }
+            assertEquals(40, total);
+        }
+    }
+
+    @Test
+    public void testSingleLaneRunsInlineWithAllPositions() {
+        List<MatchResult> decoded = List.of(result("match-1", 1, 0), result("match-2", 1, 1));
+        try (KeyOrderedLanes lanes = new KeyOrderedLanes("test", 1)) {
+            int[][] split = lanes.split(new int[]{0, 1}, decoded);
+            assertArrayEquals(new int[]{0, 1}, split[0]);
+            Thread caller = Thread.currentThread();
+            List<Thread> threads = lanes.invokeAll(split, lane -> Thread.currentThread());
+            assertEquals(caller, threads.get(0));
+        }
+    }
+
+    @Test
+    public void testLanesRunConcurrentlyAndEmptyLanesYieldNull() {
+        try (KeyOrderedLanes lanes = new KeyOrderedLanes("test", 3)) {
+            Set<String> threadNames = ConcurrentHashMap.newKeySet();
+            List<Integer> results = lanes.invokeAll(new int[][]{{0, 1}, {}, {2}}, lane -> {
+                threadNames.add(Thread.currentThread().getName());
+                return lane.length;
+            });
+            assertEquals(2, results.get(0));
+            assertNull(results.get(1));
+            assertEquals(1, results.get(2));
+            assertTrue(threadNames.stream().allMatch(name -> name.startsWith("test-lane-")));
+        }
+    }
+
+    @Test
+    public void testVirtualLanesRunOnVirtualThreads() {
+        try (KeyOrderedLanes lanes = new KeyOrderedLanes("test", 2, true)) {
+            List<Thread> threads = lanes.invokeAll(new int[][]{{0}, {1}}, lane -> Thread.currentThread());
+            assertTrue(threads.stream().allMatch(Thread::isVirtual));
+            assertTrue(threads.stream().allMatch(thread -> thread.getName().startsWith("test-lane-")));
+        }
+    }
+
+    @Test
+    public void testUnexpectedLaneExceptionIsRethrown() {
+        try (KeyOrderedLanes lanes = new KeyOrderedLanes("test", 2)) {
+            IllegalStateException e = assertThrows(IllegalStateException.class, () -> lanes.invokeAll(new int[][]{{0}, {1}}, lane -> {
+                if (lane[0] == 1) {
+                    throw new IllegalStateException("boom");
+                }
+                return lane[0];
+            }));
+            assertEquals("boom", e.getMessage());
+        }
+    }
+
+    private static MatchResult result(String id, int gameNumber, int score) {
+        return new MatchResult(id, "TeamA", "TeamB", score, 0, null, LocalDateTime.now(), gameNumber);
+    }
+}
@@ -0,0 +1,111 @@
+package com.thomascup.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thomascup.mapper.KafkaValueDecoder;
+import com.thomascup.model.LiveMatch;
+import com.thomascup.model.MatchHead;
+import com.thomascup.model.MatchResult;
+import com.thomascup.model.MatchScores;
+import com.thomascup.serialization.AvroSchemaRegistry;
+import com.thomascup.serialization.MatchHeadAvroSerializer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LiveScoreboardTest {
+    private static final Instant NOW = Instant.parse("2025-06-07T12:00:00Z");
+    private static final LocalDateTime START = LocalDateTime.of(2025, 6, 7, 10, 0);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private LiveScoreboard scoreboard;
+
+    @BeforeEach
+    public void setup() {
+        scoreboard = new LiveScoreboard(new KafkaValueDecoder(objectMapper, MatchResult.class),
+                Duration.ofHours(2), Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    public void testLatestScorePerGameAndWinner() {
+        scoreboard.apply(result("m1", 1, 10, 8, 1), NOW);
+        scoreboard.apply(result("m1", 1, 21, 8, 5), NOW);
+        scoreboard.apply(result("m1", 1, 12, 8, 3), NOW); // Stale
+        scoreboard.apply(result("m1", 2, 21, 19, 9), NOW);
+
+        LiveMatch match = scoreboard.find("m1").orElseThrow();
+        assertEquals(2, match.games().size());
+        assertEquals(21, match.games().get(0).teamAScore());
+        assertEquals("Indonesia", match.games().get(0).winner());
+        assertEquals(2, match.teamAGames());
+        assertEquals("Indonesia", match.winner());
+        assertTrue(scoreboard.live().isEmpty());
+    }
+
+    @Test
+    public void testLiveListsOnlyRecentUndecidedMatches() {
+        scoreboard.apply(result("recent", 1, 5, 3, 0), NOW.minusSeconds(60));
+        scoreboard.apply(result("older", 2, 11, 3, 0), NOW.minusSeconds(30));
+        scoreboard.apply(result("abandoned", 1, 5, 3, 0), NOW.minus(Duration.ofHours(3)));
+
+        List<LiveMatch> live = scoreboard.live();
+        assertEquals(List.of("older", "recent"), live.stream().map(LiveMatch::id).toList());
+        assertEquals(3, scoreboard.all(10).size());
+    }
+
+    @Test
+    public void testListenerDecodesJsonAndSkipsOtherValues() throws Exception {
+        byte[] json = objectMapper.writeValueAsBytes(result("m2", 3, 14, 15, 0));
+        byte[] head = "{\"id\":\"m2\",\"scores\":[]}".getBytes(StandardCharsets.UTF_8);
+        byte[] invalid = objectMapper.writeValueAsBytes(result("m3", 1, 30, 2, 0));
+
+        scoreboard.onRecords(List.of(record("update-score", json), record("thomas-cup-matches", head), record("update-score", invalid)));
+
+        LiveMatch match = scoreboard.find("m2").orElseThrow();
+        assertEquals(15, match.games().get(0).teamBScore());
+        assertNull(match.games().get(0).winner());
+        assertTrue(scoreboard.find("m3").isEmpty());
+    }
+
+    @Test
+    public void testListenerAppliesEveryGameOfAvroMatchHead() {
+        MatchHead head = new MatchHead("m4", "Indonesia", "Denmark", START,
+                List.of(new MatchScores(1, 21, 15, "Indonesia"), new MatchScores(2, 9, 11, null)));
+        RecordHeaders headers = new RecordHeaders();
+        byte[] avro = new MatchHeadAvroSerializer(new AvroSchemaRegistry()).serialize("thomas-cup-matches", headers, head);
+
+        scoreboard.onRecords(List.of(record("thomas-cup-matches", avro, headers)));
+
+        LiveMatch match = scoreboard.find("m4").orElseThrow();
+        assertEquals(2, match.games().size());
+        assertEquals(1, match.teamAGames());
+        assertEquals(11, match.games().get(1).teamBScore());
+    }
+
+    private static ConsumerRecord<String, byte[]> record(String topic, byte[] value) {
+        return record(topic, value, new RecordHeaders());
+    }
+
+    private static ConsumerRecord<String, byte[]> record(String topic, byte[] value, RecordHeaders headers) {
+        return new ConsumerRecord<>(topic, 0, 0L, NOW.toEpochMilli(), TimestampType.CREATE_TIME,
+                0, 0, "key", value, headers, Optional.empty());
+    }
+
+    private static MatchResult result(String id, int gameNumber, int teamAScore, int teamBScore, int minute) {
+        return new MatchResult(id, "Indonesia", "Denmark", teamAScore, teamBScore, null, START.plusMinutes(minute), gameNumber);
+    }
+}
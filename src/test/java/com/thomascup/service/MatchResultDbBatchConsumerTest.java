@@ -0,0 +1,184 @@
+package com.thomascup.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thomascup.mapper.KafkaValueDecoder;
+import com.thomascup.model.MatchHead;
+import com.thomascup.model.MatchResult;
+import com.thomascup.model.MatchScores;
+import com.thomascup.serialization.AvroSchemaRegistry;
+import com.thomascup.serialization.MatchHeadAvroSerializer;
+import com.thomascup.tracing.HopLatencyRecorder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MatchResultDbBatchConsumerTest {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Spy
+    private KafkaValueDecoder valueDecoder = new KafkaValueDecoder(new ObjectMapper().findAndRegisterModules(), MatchResult.class);
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private HopLatencyRecorder hopLatencyRecorder;
+
+    @InjectMocks
+    private MatchResultDbBatchConsumer consumer;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testWholePollIsOneBatch() {
+        List<ConsumerRecord<String, Object>> records = List.of(
+                record("update-score", 0L, new MatchResult("match-1", "TeamA", "TeamB", 10, 8, null, LocalDateTime.now(), 1)),
+                record("update-score", 1L, new MatchResult("match-2", "TeamC", "TeamD", 3, 5, null, LocalDateTime.now(), 2)));
+
+        consumer.updateScoreInDb(records);
+
+        ArgumentCaptor<List<Object[]>> argsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(MatchResultDbConsumer.UPSERT_SCORE_SQL), argsCaptor.capture());
+        assertEquals(2, argsCaptor.getValue().size());
+        assertEquals("match-2", argsCaptor.getValue().get(1)[0]);
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testScoreUpdatesAreCoalescedPerGame() {
+        LocalDateTime start = LocalDateTime.of(2025, 6, 7, 10, 0);
+        List<ConsumerRecord<String, Object>> records = List.of(
+                record("update-score", 0L, new MatchResult("match-1", "TeamA", "TeamB", 1, 0, null, start, 1)),
+                record("update-score", 1L, new MatchResult("match-1", "TeamA", "TeamB", 2, 0, null, start.plusSeconds(1), 1)),
+                record("update-score", 2L, new MatchResult("match-1", "TeamA", "TeamB", 0, 1, null, start, 2)),
+                record("update-score", 3L, new MatchResult("match-1", "TeamA", "TeamB", 3, 0, null, start.plusSeconds(2), 1)));
+
+        consumer.updateScoreInDb(records);
+
+        ArgumentCaptor<List<Object[]>> argsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(MatchResultDbConsumer.UPSERT_SCORE_SQL), argsCaptor.capture());
+        assertEquals(2, argsCaptor.getValue().size());
+        assertEquals(2, argsCaptor.getValue().get(0)[7]); // game 2, offset 2
+        assertEquals(3, argsCaptor.getValue().get(1)[3]); // game 1, newest score 3-0
+        assertEquals(2.0, meterRegistry.counter("thomascup.db.writes.coalesced", "topic", "update-score").count());
+    }
+
+    @Test
+    public void testFailedBatchFallsBackToSingleRecordsAndReportsPoisonRecord() {
+        MatchResult good = new MatchResult("match-1", "TeamA", "TeamB", 0, 0, null, LocalDateTime.now(), 1);
+        MatchResult bad = new MatchResult("match-2", "TeamC", "TeamD", 0, 0, null, LocalDateTime.now(), 1);
+        ConsumerRecord<String, Object> poison = record("new-game", 1L, bad);
+        List<ConsumerRecord<String, Object>> records = List.of(record("new-game", 0L, good), poison, record("new-game", 2L, good));
+
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new DataIntegrityViolationException("batch failed"));
+        doThrow(new DataIntegrityViolationException("bad row"))
+                .when(jdbcTemplate).update(eq(MatchResultDbConsumer.INSERT_NEW_GAME_SQL), eq(MatchResultDbConsumer.toSqlArgs(bad)));
+
+        BatchListenerFailedException e = assertThrows(BatchListenerFailedException.class, () -> consumer.saveNewGameToDb(records));
+        assertSame(poison, e.getRecord());
+        verify(jdbcTemplate, times(2)).update(eq(MatchResultDbConsumer.INSERT_NEW_GAME_SQL), any(Object[].class));
+    }
+
+    @Test
+    public void testParallelLanesReportLowestFailedPosition() {
+        ReflectionTestUtils.setField(consumer, "mainLanes", 4);
+        List<ConsumerRecord<String, Object>> records = new java.util.ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            records.add(record("thomas-cup-matches", i, new MatchResult("match-" + i, "TeamA", "TeamB", i, 0, null, LocalDateTime.now(), 1)));
+        }
+
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new DataIntegrityViolationException("batch failed"));
+        for (int failing : new int[]{6, 2}) {
+            doThrow(new DataIntegrityViolationException("bad row"))
+                    .when(jdbcTemplate).update(eq(MatchResultDbConsumer.UPSERT_LATEST_SQL),
+                            eq(MatchResultDbConsumer.toSqlArgs((MatchResult) records.get(failing).value())));
+        }
+
+        try {
+            BatchListenerFailedException e = assertThrows(BatchListenerFailedException.class, () -> consumer.saveLatestToDb(records));
+            assertSame(records.get(2), e.getRecord());
+        } finally {
+            consumer.shutdown();
+        }
+    }
+
+    @Test
+    public void testUndecodableRecordIsReportedAfterPrefixIsWritten() {
+        ConsumerRecord<String, Object> poison = record("new-game", 1L, 42);
+        List<ConsumerRecord<String, Object>> records = List.of(
+                record("new-game", 0L, new MatchResult("match-1", "TeamA", "TeamB", 0, 0, null, LocalDateTime.now(), 1)),
+                poison);
+
+        BatchListenerFailedException e = assertThrows(BatchListenerFailedException.class, () -> consumer.saveNewGameToDb(records));
+        assertSame(poison, e.getRecord());
+        verify(jdbcTemplate).batchUpdate(eq(MatchResultDbConsumer.INSERT_NEW_GAME_SQL), anyList());
+    }
+
+    @Test
+    public void testAvroMatchHeadIsWrittenPerGameAndFailsAsOneRecord() {
+        LocalDateTime start = LocalDateTime.of(2025, 6, 7, 10, 0);
+        MatchHead head = new MatchHead("match-2", "TeamC", "TeamD", start,
+                List.of(new MatchScores(1, 21, 10, "TeamC"), new MatchScores(2, 4, 2, null)));
+        RecordHeaders headers = new RecordHeaders();
+        byte[] avro = new MatchHeadAvroSerializer(new AvroSchemaRegistry()).serialize("thomas-cup-matches", headers, head);
+        ConsumerRecord<String, Object> snapshot = new ConsumerRecord<>("thomas-cup-matches", 0, 1L, ConsumerRecord.NO_TIMESTAMP,
+                TimestampType.NO_TIMESTAMP_TYPE, -1, -1, "match-2", avro, headers, Optional.empty());
+        List<ConsumerRecord<String, Object>> records = List.of(
+                record("thomas-cup-matches", 0L, new MatchResult("match-1", "TeamA", "TeamB", 3, 1, null, start, 1)),
+                snapshot,
+                record("thomas-cup-matches", 2L, new MatchResult("match-3", "TeamE", "TeamF", 7, 9, null, start, 1)));
+
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new DataIntegrityViolationException("batch failed"));
+        doThrow(new DataIntegrityViolationException("bad row"))
+                .when(jdbcTemplate).update(eq(MatchResultDbConsumer.UPSERT_LATEST_SQL),
+                        eq(MatchResultDbConsumer.toSqlArgs(new MatchResult("match-2", "TeamC", "TeamD", 4, 2, null, start, 2))));
+
+        BatchListenerFailedException e = assertThrows(BatchListenerFailedException.class, () -> consumer.saveLatestToDb(records));
+        assertSame(snapshot, e.getRecord());
+        // The first record and game 1 of the snapshot are written, game 2 fails
+        verify(jdbcTemplate, times(3)).update(eq(MatchResultDbConsumer.UPSERT_LATEST_SQL), any(Object[].class));
+        verify(hopLatencyRecorder).record(eq(records.get(0)), anyLong(), anyLong());
+        verify(hopLatencyRecorder, never()).record(eq(snapshot), anyLong(), anyLong());
+    }
+
+    private static ConsumerRecord<String, Object> record(String topic, long offset, Object value) {
+        return new ConsumerRecord<>(topic, 0, offset, "key", value);
+    }
+}
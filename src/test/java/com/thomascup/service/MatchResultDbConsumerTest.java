@@ -1,6 +1,11 @@
 package com.thomascup.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thomascup.mapper.KafkaValueDecoder;
 import com.thomascup.model.MatchResult;
+import com.thomascup.tracing.HopLatencyRecorder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,17 +13,28 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.time.LocalDateTime;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.verify;
 
 public class MatchResultDbConsumerTest {
     @Mock
     private JdbcTemplate jdbcTemplate;
 
+    @Spy
+    private KafkaValueDecoder valueDecoder = new KafkaValueDecoder(new ObjectMapper().findAndRegisterModules(), MatchResult.class);
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private HopLatencyRecorder hopLatencyRecorder;
+
     @InjectMocks
     private MatchResultDbConsumer consumer;
 
@@ -48,5 +64,22 @@ public class MatchResultDbConsumerTest {
         verify(jdbcTemplate).update(sqlCaptor.capture(), argCaptor.capture(), argCaptor.capture(), argCaptor.capture(), argCaptor.capture(), argCaptor.capture(), argCaptor.capture());
         assertEquals("UPDATE match_results SET teamAScore = ?, teamBScore = ?, winner = ?, matchDateTime = ? WHERE id = ? AND gameNumber = ?", sqlCaptor.getValue());
     }
-}
 
+    @Test
+    public void testUpsertsAreTimedPerListener() {
+        MatchResult matchResult = new MatchResult("match-1", "TeamA", "TeamB", 0, 0, null, LocalDateTime.now(), 1);
+        consumer.saveNewGameToDb(new ConsumerRecord<>("new-game", 0, 0L, "match-1", matchResult));
+
+        assertEquals(1, meterRegistry.get("thomascup.db.upsert")
+                .tags("listener", "thomas-cup-db-new-game", "outcome", "success").timer().count());
+    }
+
+    @Test
+    public void testUndecodableValueIsCounted() {
+        ConsumerRecord<String, Object> record = new ConsumerRecord<>("update-score", 0, 0L, "match-1", "{not json");
+
+        assertThrows(IllegalArgumentException.class, () -> consumer.updateScoreInDb(record));
+        assertEquals(1.0, meterRegistry.get("thomascup.kafka.deserialization.failures")
+                .tags("topic", "update-score", "consumer", "db-writer").counter().count());
+    }
+}
@@ -0,0 +1,79 @@
+package com.thomascup.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thomascup.mapper.KafkaValueDecoder;
+import com.thomascup.model.MatchResult;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class MatchResultReplayTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 6, 7, 10, 0);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final MatchResultReplay replay = new MatchResultReplay(null,
+            new KafkaValueDecoder(objectMapper, MatchResult.class), null, null, MatchResultSql.POSTGRESQL, null);
+    private final Map<String, MatchResultReplay.GameState> games = new HashMap<>();
+
+    @Test
+    void reducesToWhatTheWritersWouldLeave() throws IOException {
+        accumulate(MatchResultReplay.NEW_GAME_TOPIC, 0, 1000, result("m1", 1, "Indonesia", 0, 0, 0));
+        accumulate(MatchResultReplay.UPDATE_SCORE_TOPIC, 5, 1005, result("m1", 1, "ignored", 7, 4, 5));
+        accumulate(MatchResultReplay.UPDATE_SCORE_TOPIC, 3, 1003, result("m1", 1, "ignored", 3, 2, 3)); // Older update
+        accumulate(MatchResultReplay.NEW_GAME_TOPIC, 9, 1009, result("m1", 1, "ignored", 0, 0, 0)); // DO NOTHING
+
+        assertArrayEquals(new Object[] {"m1", "Indonesia", "Denmark", 7, 4, null, Timestamp.valueOf(START.plusMinutes(5)), 1},
+                games.get("m1:1").row());
+
+        // A newer full record replaces the teams, and its score until a later update-score arrives
+        accumulate(MatchResultReplay.MATCHES_TOPIC, 2, 1010, result("m1", 1, "China", 9, 9, 10));
+        assertArrayEquals(new Object[] {"m1", "China", "Denmark", 9, 9, null, Timestamp.valueOf(START.plusMinutes(10)), 1},
+                games.get("m1:1").row());
+        accumulate(MatchResultReplay.UPDATE_SCORE_TOPIC, 6, 1011, result("m1", 1, "ignored", 10, 9, 11));
+        assertEquals(10, games.get("m1:1").row()[3]);
+        assertEquals("China", games.get("m1:1").row()[1]);
+    }
+
+    @Test
+    void skipsRecordsThatAreNotMatchResults() {
+        ConsumerRecord<String, byte[]> head = record(MatchResultReplay.MATCHES_TOPIC, 0, 1000, "{\"id\": \"m1\", \"scores\": [}");
+
+        assertFalse(replay.accumulate(games, head));
+        assertEquals(0, games.size());
+    }
+
+    @Test
+    void writesCopyCsvRows() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        MatchResultReplay.writeCsvRow(csv, new Object[] {"m\"1", "", null, 21, 19, "Indonesia",
+                Timestamp.valueOf(START), 1});
+
+        assertEquals("\"m\"\"1\",\"\",,21,19,\"Indonesia\",2025-06-07T10:00:00,1\n", csv.toString());
+    }
+
+    private void accumulate(String topic, long offset, long timestamp, MatchResult result) throws IOException {
+        replay.accumulate(games, record(topic, offset, timestamp, objectMapper.writeValueAsString(result)));
+    }
+
+    private static ConsumerRecord<String, byte[]> record(String topic, long offset, long timestamp, String json) {
+        return new ConsumerRecord<>(topic, 0, offset, timestamp, TimestampType.CREATE_TIME, 0, 0, "key",
+                json.getBytes(StandardCharsets.UTF_8), new RecordHeaders(), Optional.empty());
+    }
+
+    private static MatchResult result(String id, int game, String teamA, int a, int b, int minute) {
+        return new MatchResult(id, teamA, "Denmark", a, b, null, START.plusMinutes(minute), game);
+    }
+}
@@ -0,0 +1,59 @@
+package com.thomascup.service;
+
+import com.thomascup.model.MatchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class MatchResultSqlTest {
+    private static final LocalDateTime TIME = LocalDateTime.of(2025, 6, 7, 10, 0);
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:match-result-sql;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("DROP TABLE IF EXISTS match_results");
+        jdbcTemplate.execute("CREATE TABLE match_results (id VARCHAR NOT NULL, teamA VARCHAR, teamB VARCHAR, teamAScore INT, " +
+                "teamBScore INT, winner VARCHAR, matchDateTime TIMESTAMP, gameNumber INT, PRIMARY KEY (id, gameNumber))");
+    }
+
+    @Test
+    void picksDialectByProductName() {
+        assertSame(MatchResultSql.H2, MatchResultSql.forDatabase("H2"));
+        assertSame(MatchResultSql.POSTGRESQL, MatchResultSql.forDatabase("PostgreSQL"));
+    }
+
+    @Test
+    void h2StatementsMatchPostgresSemantics() {
+        MatchResultSql sql = MatchResultSql.H2;
+
+        jdbcTemplate.update(sql.insertNewGame(), args("TeamA", 0, 0, null));
+        jdbcTemplate.update(sql.insertNewGame(), args("Renamed", 5, 5, null)); // DO NOTHING on conflict
+        assertRow("TeamA", 0);
+
+        jdbcTemplate.update(sql.upsertScore(), args("Renamed", 11, 9, null)); // Scores only
+        assertRow("TeamA", 11);
+
+        jdbcTemplate.update(sql.upsertLatest(), args("Renamed", 21, 19, "Renamed")); // Every column
+        assertRow("Renamed", 21);
+    }
+
+    private void assertRow(String teamA, int teamAScore) {
+        // Case-insensitive keys, whatever identifier case the database reports
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT teamA, teamAScore FROM match_results WHERE id = 'match-1' AND gameNumber = 1");
+        assertEquals(teamA, row.get("teamA"));
+        assertEquals(teamAScore, row.get("teamAScore"));
+    }
+
+    private static Object[] args(String teamA, int teamAScore, int teamBScore, String winner) {
+        return MatchResultDbConsumer.toSqlArgs(new MatchResult("match-1", teamA, "TeamB", teamAScore, teamBScore, winner, TIME, 1));
+    }
+}
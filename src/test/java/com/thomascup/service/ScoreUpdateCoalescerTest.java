@@ -0,0 +1,32 @@
+package com.thomascup.service;
+
+import com.thomascup.model.MatchResult;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class ScoreUpdateCoalescerTest {
+
+    @Test
+    public void testNewestTimestampWinsEvenIfDeliveredEarlier() {
+        LocalDateTime start = LocalDateTime.of(2025, 6, 7, 10, 0);
+        List<MatchResult> results = List.of(
+                new MatchResult("match-1", "TeamA", "TeamB", 5, 3, null, start.plusSeconds(5), 1),
+                new MatchResult("match-1", "TeamA", "TeamB", 4, 3, null, start, 1));
+        assertArrayEquals(new int[] {0}, ScoreUpdateCoalescer.newestPerGame(results));
+    }
+
+    @Test
+    public void testLaterOffsetWinsOnEqualOrMissingTimestamps() {
+        LocalDateTime start = LocalDateTime.of(2025, 6, 7, 10, 0);
+        List<MatchResult> results = List.of(
+                new MatchResult("match-1", "TeamA", "TeamB", 4, 3, null, start, 1),
+                new MatchResult("match-1", "TeamA", "TeamB", 5, 3, null, start, 1),
+                new MatchResult("match-2", "TeamC", "TeamD", 1, 0, null, null, 1),
+                new MatchResult("match-2", "TeamC", "TeamD", 2, 0, null, start, 1));
+        assertArrayEquals(new int[] {1, 3}, ScoreUpdateCoalescer.newestPerGame(results));
+    }
+}
@@ -0,0 +1,53 @@
+package com.thomascup.service;
+
+import com.thomascup.model.TrackingEvent;
+import com.thomascup.repository.EventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class TrackingEventMaterializerTest {
+    private final EventRepository eventRepository = new EventRepository();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TrackingEventMaterializer materializer = new TrackingEventMaterializer(eventRepository, meterRegistry);
+
+    @Test
+    void appliesEventsIdempotentlyAndSkipsUndecodableRecords() {
+        TrackingEvent started = new TrackingEvent("PN1", "STARTED", Instant.parse("2025-01-05T12:30:00Z"));
+        TrackingEvent delivered = new TrackingEvent("PN1", "DELIVERED", Instant.parse("2025-01-05T13:30:00Z"));
+
+        materializer.onEvents(List.of(
+                record(0, started),
+                record(1, null),
+                record(2, delivered),
+                record(3, started)));
+
+        assertEquals(List.of(started, delivered), eventRepository.getEvents("PN1"));
+        assertEquals(delivered, eventRepository.getLatest("PN1").orElseThrow());
+        assertEquals(1.0, meterRegistry.get("thomascup.kafka.deserialization.failures").counter().count());
+    }
+
+    @Test
+    void replaysTheTopicOnAssignment() {
+        ConsumerSeekCallback callback = mock(ConsumerSeekCallback.class);
+        Map<TopicPartition, Long> assigned = Map.of(new TopicPartition("tracking-events", 0), 42L);
+
+        materializer.onPartitionsAssigned(assigned, callback);
+
+        verify(callback).seekToBeginning(assigned.keySet());
+    }
+
+    private static ConsumerRecord<String, TrackingEvent> record(long offset, TrackingEvent event) {
+        return new ConsumerRecord<>("tracking-events", 0, offset, "PN1", event);
+    }
+}
@@ -0,0 +1,135 @@
+package com.thomascup.streams;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.thomascup.mapper.KafkaValueDecoder;
+import com.thomascup.model.MatchAggregate;
+import com.thomascup.model.MatchHead;
+import com.thomascup.model.MatchResult;
+import com.thomascup.model.MatchScores;
+import com.thomascup.serialization.AvroSchemaRegistry;
+import com.thomascup.serialization.MatchHeadAvroSerializer;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.test.TestRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class MatchAggregationTopologyTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 6, 7, 10, 0);
+
+    private TopologyTestDriver driver;
+    private TestInputTopic<String, MatchResult> matches;
+    private TestInputTopic<String, MatchResult> updates;
+    private TestInputTopic<String, String> rawMatches;
+    private TestInputTopic<String, byte[]> avroMatches;
+    private TestOutputTopic<String, MatchAggregate> output;
+    private KeyValueStore<String, MatchAggregate> store;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        JsonMapper mapper = JsonMapper.builder().findAndAddModules().build();
+        KafkaValueDecoder decoder = new KafkaValueDecoder(mapper, MatchResult.class);
+        Serde<MatchResult> resultSerde = MatchAggregationTopology.matchResultSerde(decoder, mapper);
+        Serde<MatchAggregate> aggregateSerde = MatchAggregationTopology.matchAggregateSerde(mapper);
+
+        StreamsBuilder builder = new StreamsBuilder();
+        MatchAggregationTopology.build(builder, MatchAggregationTopology.matchResultsSerde(decoder, mapper), resultSerde, aggregateSerde);
+
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "match-aggregation-test");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        props.put(StreamsConfig.STATE_DIR_CONFIG, Files.createTempDirectory("match-aggregation").toString());
+        driver = new TopologyTestDriver(builder.build(), props);
+
+        matches = driver.createInputTopic("thomas-cup-matches", new StringSerializer(), resultSerde.serializer());
+        updates = driver.createInputTopic("update-score", new StringSerializer(), resultSerde.serializer());
+        rawMatches = driver.createInputTopic("thomas-cup-matches", new StringSerializer(), new StringSerializer());
+        avroMatches = driver.createInputTopic("thomas-cup-matches", new StringSerializer(), new ByteArraySerializer());
+        output = driver.createOutputTopic(MatchAggregationTopology.OUTPUT_TOPIC, new StringDeserializer(), aggregateSerde.deserializer());
+        store = driver.getKeyValueStore(MatchAggregationTopology.STORE_NAME);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        driver.close();
+    }
+
+    @Test
+    public void testWinnerIsDerivedFromTwoGamesWon() {
+        updates.pipeInput("m1:1", game(1, 21, 15, 0));
+        updates.pipeInput("m1:2", game(2, 18, 21, 1));
+        matches.pipeInput("m1:3", game(3, 15, 12, 2));
+
+        MatchAggregate aggregate = store.get("m1");
+        assertEquals(2, aggregate.getTeamAGames());
+        assertEquals(1, aggregate.getTeamBGames());
+        assertEquals("Indonesia", aggregate.getWinner());
+        assertEquals("Denmark", aggregate.getGames().get(2).getWinner());
+
+        MatchAggregate last = output.readKeyValuesToList().get(2).value;
+        assertEquals("m1", last.getId());
+        assertEquals("Indonesia", last.getWinner());
+    }
+
+    @Test
+    public void testGameInProgressDoesNotCountAndStaleUpdatesAreIgnored() {
+        updates.pipeInput("m1:1", game(1, 10, 8, 5));
+        matches.pipeInput("m1:1", game(1, 21, 8, 10));
+        updates.pipeInput("m1:1", game(1, 12, 8, 7)); // Older than the finished score
+
+        MatchAggregate aggregate = store.get("m1");
+        assertEquals(21, aggregate.getGames().get(1).getTeamAScore());
+        assertEquals(1, aggregate.getTeamAGames());
+        assertNull(aggregate.getWinner());
+
+        updates.pipeInput("m1:2", game(2, 20, 20, 12));
+        assertEquals(1, store.get("m1").getTeamAGames());
+        assertEquals(0, store.get("m1").getTeamBGames());
+    }
+
+    @Test
+    public void testUndecodableAndInvalidValuesAreSkipped() {
+        rawMatches.pipeInput("m1", "{\"id\":\"m1\",\"scores\":[]}"); // MatchHead snapshot
+        updates.pipeInput("m1:1", game(1, 3, 1, 1));
+        updates.pipeInput("m1:1", game(1, 30, 5, 2)); // Past 21 without deuce
+
+        MatchAggregate aggregate = store.get("m1");
+        assertEquals(3, aggregate.getGames().get(1).getTeamAScore());
+        assertEquals(0, aggregate.getTeamAGames());
+    }
+
+    @Test
+    public void testAvroMatchHeadCountsEveryGame() {
+        MatchHead head = new MatchHead("m1", "Indonesia", "Denmark", START,
+                List.of(new MatchScores(1, 21, 15, "Indonesia"), new MatchScores(2, 21, 18, "Indonesia")));
+        RecordHeaders headers = new RecordHeaders();
+        byte[] avro = new MatchHeadAvroSerializer(new AvroSchemaRegistry()).serialize("thomas-cup-matches", headers, head);
+        avroMatches.pipeInput(new TestRecord<>("m1", avro, headers));
+
+        MatchAggregate aggregate = store.get("m1");
+        assertEquals(2, aggregate.getTeamAGames());
+        assertEquals("Indonesia", aggregate.getWinner());
+    }
+
+    private static MatchResult game(int gameNumber, int teamAScore, int teamBScore, int minute) {
+        return new MatchResult("m1", "Indonesia", "Denmark", teamAScore, teamBScore, null, START.plusMinutes(minute), gameNumber);
+    }
+}
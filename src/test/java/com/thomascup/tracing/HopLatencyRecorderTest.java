@@ -0,0 +1,81 @@
+package com.thomascup.tracing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HopLatencyRecorderTest {
+    private static final long T0 = Instant.parse("2025-06-07T10:00:00Z").toEpochMilli();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Clock clock = Clock.fixed(Instant.ofEpochMilli(T0), ZoneOffset.UTC);
+    private final HopLatencyRecorder recorder = new HopLatencyRecorder(registry, 2, Duration.ofMinutes(5), clock);
+
+    @Test
+    void startsAsSpringBean() {
+        // SpringApplication registers the same conversion service, which binds the PT5M window
+        new ApplicationContextRunner()
+                .withInitializer(context -> context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance()))
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withUserConfiguration(HopLatencyRecorder.class)
+                .withPropertyValues("thomascup.tracing.slow-traces=1")
+                .run(context -> {
+                    HopLatencyRecorder bean = context.getBean(HopLatencyRecorder.class);
+                    bean.record(traced(0, T0, T0), T0, T0 + 10);
+                    bean.record(traced(1, T0, T0), T0, T0 + 20);
+                    assertEquals(List.of(1L), bean.slowest().stream().map(HopLatencyRecorder.Trace::offset).toList());
+                });
+    }
+
+    @Test
+    void recordsHopsOfTracedRecordsOnly() {
+        recorder.record(traced(0, T0, T0 + 5), T0 + 20, T0 + 50);
+        recorder.record(new ConsumerRecord<>("update-score", 0, 1L, "match-1:1", "value"), T0, T0 + 1000);
+
+        assertEquals(5, hopMillis("ingest-to-send"));
+        assertEquals(15, hopMillis("send-to-poll"));
+        assertEquals(30, hopMillis("poll-to-db"));
+        assertEquals(50, hopMillis("ingest-to-db"));
+        assertEquals(1, registry.get("thomascup.trace.hop").tag("hop", "ingest-to-db").timer().count());
+    }
+
+    @Test
+    void keepsSlowestTraces() {
+        recorder.record(traced(0, T0, T0), T0, T0 + 10);
+        recorder.record(traced(1, T0, T0), T0, T0 + 300);
+        recorder.record(traced(2, T0, T0), T0, T0 + 40);
+
+        List<HopLatencyRecorder.Trace> slowest = recorder.slowest();
+        assertEquals(List.of(1L, 2L), slowest.stream().map(HopLatencyRecorder.Trace::offset).toList());
+        assertEquals(300, slowest.get(0).totalMs());
+        assertTrue(slowest.stream().allMatch(trace -> trace.topic().equals("update-score")));
+    }
+
+    private long hopMillis(String hop) {
+        return (long) registry.get("thomascup.trace.hop").tag("hop", hop).timer().totalTime(TimeUnit.MILLISECONDS);
+    }
+
+    private static ConsumerRecord<String, Object> traced(long offset, long ingestedAt, long sentAt) {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(TracingProducerInterceptor.INGEST_HEADER, TracingProducerInterceptor.toBytes(ingestedAt));
+        headers.add(TracingProducerInterceptor.SEND_HEADER, TracingProducerInterceptor.toBytes(sentAt));
+        return new ConsumerRecord<>("update-score", 0, offset, sentAt, TimestampType.CREATE_TIME,
+                0, 0, "match-1:1", "value", headers, Optional.empty());
+    }
+}
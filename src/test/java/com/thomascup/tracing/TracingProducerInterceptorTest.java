@@ -0,0 +1,39 @@
+package com.thomascup.tracing;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TracingProducerInterceptorTest {
+
+    @Test
+    void stampsSampledRecordsOnly() {
+        TracingProducerInterceptor<String, String> always = interceptor(1.0);
+        TracingProducerInterceptor<String, String> never = interceptor(0.0);
+
+        ProducerRecord<String, String> sampled = always.onSend(new ProducerRecord<>("update-score", "k", "v"));
+        ProducerRecord<String, String> skipped = never.onSend(new ProducerRecord<>("update-score", "k", "v"));
+
+        assertNotNull(sampled.headers().lastHeader(TracingProducerInterceptor.SEND_HEADER));
+        // Outside a request the ingest time falls back to the send time
+        assertEquals(millis(sampled, TracingProducerInterceptor.SEND_HEADER),
+                millis(sampled, TracingProducerInterceptor.INGEST_HEADER));
+        assertNull(skipped.headers().lastHeader(TracingProducerInterceptor.SEND_HEADER));
+    }
+
+    private static long millis(ProducerRecord<?, ?> record, String header) {
+        return ByteBuffer.wrap(record.headers().lastHeader(header).value()).getLong();
+    }
+
+    private static TracingProducerInterceptor<String, String> interceptor(double sampleRate) {
+        TracingProducerInterceptor<String, String> interceptor = new TracingProducerInterceptor<>();
+        interceptor.configure(Map.of(TracingProducerInterceptor.SAMPLE_RATE_CONFIG, sampleRate));
+        return interceptor;
+    }
+}